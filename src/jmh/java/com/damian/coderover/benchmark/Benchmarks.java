@@ -0,0 +1,40 @@
+package com.damian.coderover.benchmark;
+
+import java.lang.reflect.Proxy;
+
+final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Instantiates a Spring bean through its constructor with every dependency left null, for benchmarking
+     * methods that do not touch those dependencies.
+     */
+    static <T> T instantiate(Class<T> type) throws ReflectiveOperationException {
+        var constructor = type.getDeclaredConstructors()[0];
+        var args = new Object[constructor.getParameterCount()];
+        var parameterTypes = constructor.getParameterTypes();
+        for (int i = 0; i < args.length; i++) {
+            if (parameterTypes[i] == boolean.class) {
+                args[i] = false;
+            } else if (parameterTypes[i].isPrimitive()) {
+                args[i] = 0;
+            }
+        }
+        return type.cast(constructor.newInstance(args));
+    }
+
+    /**
+     * Creates an implementation of a Feign client interface that answers one method with a fixed value and
+     * rejects every other call.
+     */
+    static <T> T stubClient(Class<T> client, String method, Object result) {
+        return client.cast(Proxy.newProxyInstance(client.getClassLoader(), new Class<?>[]{client}, (proxy, invoked, args) -> {
+            if (invoked.getName().equals(method)) {
+                return result;
+            }
+            throw new UnsupportedOperationException(invoked.getName());
+        }));
+    }
+}
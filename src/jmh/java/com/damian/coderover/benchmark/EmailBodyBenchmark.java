@@ -0,0 +1,48 @@
+package com.damian.coderover.benchmark;
+
+import com.damian.coderover.dto.ReportEmailDTO;
+import com.damian.coderover.service.impl.EmailServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of rendering a report email body for reports of different sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailBodyBenchmark {
+
+    @Param({"10", "1000"})
+    private int itemsPerSection;
+
+    private EmailServiceImpl emailService;
+    private MethodHandle buildBody;
+    private ReportEmailDTO report;
+
+    @Setup
+    public void setup() throws Exception {
+        emailService = Benchmarks.instantiate(EmailServiceImpl.class);
+        buildBody = MethodHandles.privateLookupIn(EmailServiceImpl.class, MethodHandles.lookup())
+                .findVirtual(EmailServiceImpl.class, "buildBody", MethodType.methodType(String.class, ReportEmailDTO.class));
+        report = new ReportEmailDTO(items("Null dereference in line"), items("N+1 query in loop"),
+                items("Unvalidated redirect in handler"));
+    }
+
+    @Benchmark
+    public String buildBody() throws Throwable {
+        return (String) buildBody.invoke(emailService, report);
+    }
+
+    private String[] items(String prefix) {
+        return IntStream.range(0, itemsPerSection).mapToObj(i -> prefix + " " + i).toArray(String[]::new);
+    }
+}
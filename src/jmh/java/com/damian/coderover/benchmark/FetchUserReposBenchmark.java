@@ -0,0 +1,50 @@
+package com.damian.coderover.benchmark;
+
+import com.damian.coderover.dto.RepoDTO;
+import com.damian.coderover.feign.GithubClient;
+import com.damian.coderover.response.Response;
+import com.damian.coderover.service.impl.GithubServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Server-side work of {@code fetchUserRepos} (Java filtering and response wrapping) over large repository lists,
+ * with the GitHub call replaced by a stub that returns immediately.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FetchUserReposBenchmark {
+
+    private static final List<String> LANGUAGES = List.of("Java", "Kotlin", "TypeScript", "java", "Go");
+
+    @Param({"1000", "5000"})
+    private int repoCount;
+
+    private GithubServiceImpl githubService;
+
+    @Setup
+    public void setup() throws Exception {
+        var repos = IntStream.range(0, repoCount)
+                .mapToObj(i -> new RepoDTO("repo-" + i, "octocat/repo-" + i, "https://github.com/octocat/repo-" + i,
+                        i % 3 == 0, i % 7 == 0 ? null : LANGUAGES.get(i % LANGUAGES.size()), "Repository " + i,
+                        i % 50, "2025-01-01T00:00:00Z"))
+                .toList();
+        githubService = Benchmarks.instantiate(GithubServiceImpl.class);
+        ReflectionTestUtils.setField(githubService, "githubClient",
+                Benchmarks.stubClient(GithubClient.class, "getUserRepos", repos));
+    }
+
+    @Benchmark
+    public ResponseEntity<Response> fetchUserRepos() {
+        return githubService.fetchUserRepos("token", 100, 1);
+    }
+}
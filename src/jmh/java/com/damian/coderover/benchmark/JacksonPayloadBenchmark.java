@@ -0,0 +1,104 @@
+package com.damian.coderover.benchmark;
+
+import com.damian.coderover.dto.GitTreeResponse;
+import com.damian.coderover.dto.GitTreeResponse.TreeItem;
+import com.damian.coderover.dto.ReviewResponseDTO;
+import com.damian.coderover.service.impl.GithubServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * Deserialization of the largest payloads we receive: recursive repository trees from GitHub and review
+ * responses from the LLM backend. {@code streamTree} copies the same tree through the streaming endpoint's
+ * parser; run with {@code -prof gc} to compare allocation per operation against {@code deserializeTree}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonPayloadBenchmark {
+
+    // Same defaults as the mapper Spring Boot hands to the Feign decoders (unknown properties ignored).
+    private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    @State(Scope.Benchmark)
+    public static class TreePayload {
+
+        @Param({"1000", "100000"})
+        private int treeEntries;
+
+        private byte[] json;
+        private GithubServiceImpl githubService;
+        private MethodHandle copyTree;
+
+        @Setup
+        public void setup() throws Exception {
+            githubService = Benchmarks.instantiate(GithubServiceImpl.class);
+            copyTree = MethodHandles.privateLookupIn(GithubServiceImpl.class, MethodHandles.lookup())
+                    .findVirtual(GithubServiceImpl.class, "copyTree", MethodType.methodType(void.class,
+                            InputStream.class, OutputStream.class, Predicate.class));
+            var tree = IntStream.range(0, treeEntries)
+                    .mapToObj(i -> Map.of(
+                            "path", "src/main/java/com/example/module" + (i % 100) + "/Type" + i + ".java",
+                            "mode", "100644",
+                            "type", "blob",
+                            "sha", "%040x".formatted(i),
+                            "size", 1024 + i,
+                            "url", "https://api.github.com/repos/o/r/git/blobs/%040x".formatted(i)))
+                    .toList();
+            json = OBJECT_MAPPER.writeValueAsBytes(Map.of("sha", "root", "url", "https://api.github.com", "tree", tree,
+                    "truncated", false));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ReviewPayload {
+
+        private byte[] json;
+
+        @Setup
+        public void setup() throws Exception {
+            var text = "- Consider extracting this method.\n".repeat(2_000);
+            json = OBJECT_MAPPER.writeValueAsBytes(Map.of(
+                    "id", "resp_1",
+                    "object", "response",
+                    "model", "gpt-5",
+                    "usage", Map.of("input_tokens", 12000, "output_tokens", 4000),
+                    "output", List.of(
+                            Map.of("id", "rs_1", "type", "reasoning", "summary", List.of()),
+                            Map.of("id", "msg_1", "type", "message", "status", "completed", "role", "assistant",
+                                    "content", List.of(Map.of("type", "output_text", "text", text, "annotations", List.of()))))));
+        }
+    }
+
+    @Benchmark
+    public GitTreeResponse deserializeTree(TreePayload payload) throws Exception {
+        return OBJECT_MAPPER.readValue(payload.json, GitTreeResponse.class);
+    }
+
+    @Benchmark
+    public void streamTree(TreePayload payload) throws Throwable {
+        Predicate<TreeItem> javaSources = item -> item.path().endsWith(".java");
+        payload.copyTree.invoke(payload.githubService, new ByteArrayInputStream(payload.json),
+                OutputStream.nullOutputStream(), javaSources);
+    }
+
+    @Benchmark
+    public ReviewResponseDTO deserializeReview(ReviewPayload payload) throws Exception {
+        return OBJECT_MAPPER.readValue(payload.json, ReviewResponseDTO.class);
+    }
+}
@@ -0,0 +1,124 @@
+package com.damian.coderover.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Profile lookups and logins against a user table of growing size, with and without the unique email index, on
+ * H2 in MySQL mode as an embedded stand-in for MySQL. Without the index, {@code login} is the former find-then-insert;
+ * with it, the single {@code INSERT ... ON DUPLICATE KEY UPDATE} issued by {@code UserRepo.upsert}, which is all
+ * {@code UserServiceImpl.persistUser} runs for a login whose profile is not cached: the stored row is not read back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserLookupBenchmark {
+
+    private static final int INSERT_BATCH = 1_000;
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"false", "true"})
+    private boolean emailIndex;
+
+    private Connection connection;
+    private PreparedStatement find;
+    private PreparedStatement insert;
+    private PreparedStatement upsert;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:;MODE=MySQL");
+        try (var statement = connection.createStatement()) {
+            statement.execute("""
+                    create table users (id varchar(36) primary key, name varchar(255), email varchar(255),
+                                        login varchar(255), profile_picurl varchar(255), followers int)
+                    """);
+        }
+        connection.setAutoCommit(false);
+        try (var populate = connection.prepareStatement("insert into users values (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                populate.setString(1, UUID.randomUUID().toString());
+                populate.setString(2, "User " + i);
+                populate.setString(3, email(i));
+                populate.setString(4, "user" + i);
+                populate.setString(5, "https://avatars.example.com/u/" + i);
+                populate.setInt(6, i % 100);
+                populate.addBatch();
+                if ((i + 1) % INSERT_BATCH == 0) {
+                    populate.executeBatch();
+                }
+            }
+            populate.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        if (emailIndex) {
+            try (var statement = connection.createStatement()) {
+                statement.execute("create unique index ux_user_email on users (email)");
+            }
+        }
+        find = connection.prepareStatement(
+                "select id, name, email, login, profile_picurl, followers from users where email = ?");
+        insert = connection.prepareStatement("insert into users values (?, ?, ?, ?, ?, ?)");
+        // H2 has no row alias ("values (...) as new"), so this uses VALUES(), which MySQL executes the same way.
+        upsert = connection.prepareStatement("""
+                insert into users values (?, ?, ?, ?, ?, ?)
+                on duplicate key update name = values(name), login = values(login),
+                                        profile_picurl = values(profile_picurl), followers = values(followers)
+                """);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public boolean lookupByEmail() throws SQLException {
+        find.setString(1, email(ThreadLocalRandom.current().nextInt(rows)));
+        try (var result = find.executeQuery()) {
+            return result.next();
+        }
+    }
+
+    @Benchmark
+    public int login() throws SQLException {
+        var i = ThreadLocalRandom.current().nextInt(rows);
+        if (emailIndex) {
+            return bind(upsert, i).executeUpdate();
+        }
+        find.setString(1, email(i));
+        try (var result = find.executeQuery()) {
+            if (result.next()) {
+                return 0;
+            }
+        }
+        return bind(insert, i).executeUpdate();
+    }
+
+    private static PreparedStatement bind(PreparedStatement statement, int i) throws SQLException {
+        statement.setString(1, UUID.randomUUID().toString());
+        statement.setString(2, "User " + i);
+        statement.setString(3, email(i));
+        statement.setString(4, "user" + i);
+        statement.setString(5, "https://avatars.example.com/u/" + i);
+        statement.setInt(6, ThreadLocalRandom.current().nextInt(100));
+        return statement;
+    }
+
+    private static String email(int i) {
+        return "user" + i + "@example.com";
+    }
+}
@@ -0,0 +1,18 @@
+package com.damian.coderover.config;
+
+import com.damian.coderover.feign.LimitingClient;
+import com.damian.coderover.util.DownstreamLimiters;
+import feign.Client;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Feign configuration for {@code CodeT5ReviewClient}; like {@link GithubFeignConfig}, not a {@code @Configuration}.
+ */
+public class CodeT5FeignConfig {
+
+    @Bean
+    public Client codeT5FeignClient(DownstreamLimiters downstreamLimiters) {
+        return new LimitingClient(DownstreamLimiters.CODE_T5, downstreamLimiters.forClient(DownstreamLimiters.CODE_T5),
+                new Client.Default(null, null));
+    }
+}
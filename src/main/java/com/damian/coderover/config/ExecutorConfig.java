@@ -0,0 +1,92 @@
+package com.damian.coderover.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application executors. With {@code spring.threads.virtual.enabled=true} Tomcat already serves requests (and so
+ * every blocking Feign call) on virtual threads; the executors below follow the same switch so that background
+ * review work does not fall back to platform threads. Pool sizes still bound how much work runs at once.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${review.batch.parallelism:4}")
+    private int reviewParallelism;
+
+    @Value("${review.stream.max-concurrent:32}")
+    private int maxConcurrentStreams;
+
+    @Value("${review.chunk.parallelism:4}")
+    private int chunkParallelism;
+
+    @Value("${github.repos.page-parallelism:8}")
+    private int repoPageParallelism;
+
+    @Value("${mail.outbox.workers:2}")
+    private int emailWorkers;
+
+    @Value("${mail.outbox.batch-size:50}")
+    private int emailBatchSize;
+
+    @Bean(name = "reviewExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService reviewExecutor() {
+        return Executors.newFixedThreadPool(reviewParallelism, threadFactory("review-"));
+    }
+
+    /**
+     * Relays streamed reviews. Streams are held open for the whole generation, so instead of queueing
+     * behind each other a stream is rejected once {@code review.stream.max-concurrent} are in flight.
+     */
+    @Bean(name = "reviewStreamExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService reviewStreamExecutor() {
+        return new ThreadPoolExecutor(0, maxConcurrentStreams, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                threadFactory("review-stream-"));
+    }
+
+    /**
+     * Reviews the chunks of large files. Kept apart from {@code reviewExecutor} so that a repository review, whose
+     * per-file tasks wait on their chunks, can never starve itself of threads.
+     */
+    @Bean(name = "reviewChunkExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService reviewChunkExecutor() {
+        return Executors.newFixedThreadPool(chunkParallelism, threadFactory("review-chunk-"));
+    }
+
+    /**
+     * Fetches the remaining pages of a user's repository list in parallel once the first page's {@code Link}
+     * header has told how many there are.
+     */
+    @Bean(name = "githubPageExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService githubPageExecutor() {
+        return Executors.newFixedThreadPool(repoPageParallelism, threadFactory("github-page-"));
+    }
+
+    /**
+     * Sends the batches claimed by the email outbox dispatcher, one pooled SMTP connection per worker. The queue
+     * holds exactly one batch, since the dispatcher waits for a batch to finish before claiming the next.
+     */
+    @Bean(name = "emailExecutor", destroyMethod = "close")
+    public ExecutorService emailExecutor() {
+        return new ThreadPoolExecutor(emailWorkers, emailWorkers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(emailBatchSize), threadFactory("email-"));
+    }
+
+    private ThreadFactory threadFactory(String prefix) {
+        return virtualThreads
+                ? Thread.ofVirtual().name(prefix, 0).factory()
+                : Thread.ofPlatform().name(prefix, 0).factory();
+    }
+}
@@ -0,0 +1,27 @@
+package com.damian.coderover.config;
+
+import com.damian.coderover.feign.ConditionalRequestClient;
+import com.damian.coderover.feign.LimitingClient;
+import com.damian.coderover.feign.RateLimitAwareClient;
+import com.damian.coderover.util.ConditionalRequestStore;
+import com.damian.coderover.util.DownstreamLimiters;
+import com.damian.coderover.util.GithubRateBudget;
+import feign.Client;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Feign configuration for {@code GithubClient} only. Deliberately not a {@code @Configuration}, so that component
+ * scanning does not apply it to the review clients as well.
+ */
+public class GithubFeignConfig {
+
+    @Bean
+    public Client githubFeignClient(ConditionalRequestStore conditionalRequestStore,
+                                    DownstreamLimiters downstreamLimiters, GithubRateBudget githubRateBudget) {
+        // Rate limit waits happen outside the concurrency limit, so that a throttled token holds no permits.
+        return new RateLimitAwareClient(
+                new LimitingClient(DownstreamLimiters.GITHUB, downstreamLimiters.forClient(DownstreamLimiters.GITHUB),
+                        new ConditionalRequestClient(new Client.Default(null, null), conditionalRequestStore)),
+                githubRateBudget);
+    }
+}
@@ -0,0 +1,56 @@
+package com.damian.coderover.config;
+
+import com.damian.coderover.util.BlobCache;
+import com.damian.coderover.util.BoundedCache;
+import com.damian.coderover.util.ConditionalRequestStore;
+import com.damian.coderover.util.ReviewCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.Supplier;
+
+/**
+ * Application metrics that Spring Boot does not publish by itself. HTTP endpoints ({@code http.server.requests})
+ * and Feign clients ({@code http.client.requests}, via feign-micrometer) are instrumented automatically; this adds
+ * hit, miss and eviction counts for the in-memory caches, using the meter names Micrometer uses for caches.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder cacheMetrics(ReviewCache reviewCache, BlobCache blobCache,
+                                    ConditionalRequestStore conditionalRequestStore) {
+        return registry -> {
+            bindCache(registry, "review", reviewCache::stats);
+            bindCache(registry, "conditional-requests", conditionalRequestStore::stats);
+            bindCache(registry, "blob", () -> {
+                var stats = blobCache.stats();
+                return new BoundedCache.Stats(stats.hits(), stats.misses(), stats.evictions(), stats.entries(),
+                        stats.bytes());
+            });
+        };
+    }
+
+    static void bindCache(MeterRegistry registry, String cache, Supplier<BoundedCache.Stats> stats) {
+        FunctionCounter.builder("cache.gets", stats, s -> s.get().hits())
+                .tags("cache", cache, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", stats, s -> s.get().misses())
+                .tags("cache", cache, "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", stats, s -> s.get().evictions())
+                .tag("cache", cache)
+                .register(registry);
+        Gauge.builder("cache.size", stats, s -> s.get().size())
+                .tag("cache", cache)
+                .register(registry);
+        Gauge.builder("cache.weight", stats, s -> s.get().weight())
+                .description("Total weight of cached values, in the unit of the cache's weigher")
+                .tag("cache", cache)
+                .register(registry);
+    }
+}
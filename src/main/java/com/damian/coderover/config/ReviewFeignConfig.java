@@ -0,0 +1,18 @@
+package com.damian.coderover.config;
+
+import com.damian.coderover.feign.LimitingClient;
+import com.damian.coderover.util.DownstreamLimiters;
+import feign.Client;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Feign configuration for {@code ReviewClient}; like {@link GithubFeignConfig}, not a {@code @Configuration}.
+ */
+public class ReviewFeignConfig {
+
+    @Bean
+    public Client reviewFeignClient(DownstreamLimiters downstreamLimiters) {
+        return new LimitingClient(DownstreamLimiters.REVIEW, downstreamLimiters.forClient(DownstreamLimiters.REVIEW),
+                new Client.Default(null, null));
+    }
+}
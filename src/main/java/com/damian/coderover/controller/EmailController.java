@@ -16,7 +16,9 @@ public class EmailController {
     private final EmailService emailService;
 
     @PostMapping("/send-report")
-    public ResponseEntity<Response> sendReportEmail(@RequestBody ReportEmailDTO dto) {
-        return emailService.sendReport(dto);
+    public ResponseEntity<Response> sendReportEmail(@RequestBody ReportEmailDTO dto,
+                                                    @RequestHeader(value = "Idempotency-Key", required = false)
+                                                    String idempotencyKey) {
+        return emailService.sendReport(dto, idempotencyKey);
     }
 }
\ No newline at end of file
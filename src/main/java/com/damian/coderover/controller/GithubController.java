@@ -9,6 +9,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
 import org.springframework.security.oauth2.client.annotation.RegisteredOAuth2AuthorizedClient;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping(path = "/api/v1/github", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -26,6 +27,12 @@ public class GithubController {
         return githubService.fetchUserRepos(authorizedClient.getAccessToken().getTokenValue(), perPage, page);
     }
 
+    @GetMapping(path = "/user/repos/all")
+    public ResponseEntity<StreamingResponseBody> streamAllJavaRepos(@RegisteredOAuth2AuthorizedClient("github")
+                                                                    OAuth2AuthorizedClient authorizedClient) {
+        return githubService.streamAllJavaRepos(authorizedClient.getAccessToken().getTokenValue());
+    }
+
     @GetMapping("/repos/{owner}/{repo}/tree")
     public ResponseEntity<Response> fetchRepoTree(@RegisteredOAuth2AuthorizedClient("github") OAuth2AuthorizedClient client,
                                                   @PathVariable String owner, @PathVariable String repo,
@@ -34,6 +41,34 @@ public class GithubController {
         return githubService.fetchRepoTree(client.getAccessToken().getTokenValue(), owner, repo, branch);
     }
 
+    @GetMapping("/repos/{owner}/{repo}/tree/stream")
+    public ResponseEntity<StreamingResponseBody> streamRepoTree(@RegisteredOAuth2AuthorizedClient("github") OAuth2AuthorizedClient client,
+                                                                @PathVariable String owner, @PathVariable String repo,
+                                                                @RequestParam(defaultValue = "master") String branch,
+                                                                @RequestParam(required = false) String prefix,
+                                                                @RequestParam(required = false) String extension) {
+        return githubService.streamRepoTree(client.getAccessToken().getTokenValue(), owner, repo, branch, prefix, extension);
+    }
+
+    @GetMapping("/repos/{owner}/{repo}/tree/level")
+    public ResponseEntity<Response> fetchTreeLevel(@RegisteredOAuth2AuthorizedClient("github") OAuth2AuthorizedClient client,
+                                                   @PathVariable String owner, @PathVariable String repo,
+                                                   @RequestParam(defaultValue = "master") String branch,
+                                                   @RequestParam(required = false) String sha,
+                                                   @RequestParam(required = false) String path,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "100") int limit) {
+        return githubService.fetchTreeLevel(client.getAccessToken().getTokenValue(), owner, repo, branch, sha, path,
+                cursor, limit);
+    }
+
+    @GetMapping("/repos/{owner}/{repo}/snapshot")
+    public ResponseEntity<Response> fetchRepoSnapshot(@RegisteredOAuth2AuthorizedClient("github") OAuth2AuthorizedClient client,
+                                                      @PathVariable String owner, @PathVariable String repo,
+                                                      @RequestParam(defaultValue = "master") String branch) {
+        return githubService.fetchRepoSnapshot(client.getAccessToken().getTokenValue(), owner, repo, branch);
+    }
+
     @GetMapping("/repos/{owner}/{repo}/blob")
     public ResponseEntity<Response> getFileBlob(@RegisteredOAuth2AuthorizedClient("github") OAuth2AuthorizedClient client,
                                                 @PathVariable String owner, @PathVariable String repo,
@@ -48,7 +83,7 @@ public class GithubController {
     }
 
     @GetMapping("/user")
-    public ResponseEntity<Response> fetchUserInfo() {
-        return userService.fetchUserInfo();
+    public ResponseEntity<Response> fetchUserInfo(@RequestParam(required = false) String fields) {
+        return userService.fetchUserInfo(fields);
     }
 }
@@ -1,11 +1,19 @@
 package com.damian.coderover.controller;
 
+import com.damian.coderover.dto.BatchBuildReviewRequestDTO;
+import com.damian.coderover.dto.DiffReviewRequestDTO;
 import com.damian.coderover.response.Response;
+import com.damian.coderover.service.GithubService;
+import com.damian.coderover.service.RepoReviewService;
 import com.damian.coderover.service.ReviewService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.annotation.RegisteredOAuth2AuthorizedClient;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping(path = "/api/v1/review", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -13,12 +21,19 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "*")
 public class ReviewController {
     private final ReviewService reviewService;
+    private final RepoReviewService repoReviewService;
+    private final GithubService githubService;
 
     @PostMapping
     public ResponseEntity<Response> requestCodeReview(@RequestBody String code) {
         return reviewService.requestCodeReview(code, false);
     }
 
+    @PostMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCodeReview(@RequestBody String code) {
+        return reviewService.streamCodeReview(code, false);
+    }
+
     @PostMapping(path = "/codeT5/v1")
     public ResponseEntity<Response> requestCodeReviewFromCodeT5_V1(@RequestBody String code) {
         return reviewService.requestCodeReviewFromCodeT5V1(code);
@@ -28,4 +43,42 @@ public class ReviewController {
     public ResponseEntity<Response> reviewBuild(@RequestBody String code) {
         return reviewService.requestCodeReview(code, true);
     }
+
+    @PostMapping(path = "/status/batch")
+    public ResponseEntity<Response> reviewBuildBatch(@RequestBody BatchBuildReviewRequestDTO request) {
+        if (request.files() == null || request.files().isEmpty()) {
+            return ResponseEntity.badRequest().body(new Response("Provide at least one file to review", null,
+                    HttpStatus.BAD_REQUEST.value()));
+        }
+        return reviewService.requestBatchBuildReview(request.files());
+    }
+
+    /**
+     * Reviews only what a change touched: either the posted unified diff, or the diff GitHub computes between the
+     * {@code base} and {@code head} commits of {@code owner}/{@code repo}, read with the token in
+     * {@code X-GitHub-Token}.
+     */
+    @PostMapping(path = "/status/diff")
+    public ResponseEntity<Response> reviewBuildDiff(@RequestBody DiffReviewRequestDTO request,
+                                                    @RequestHeader(value = "X-GitHub-Token", required = false) String githubToken) {
+        if (request.diff() != null && !request.diff().isBlank()) {
+            return reviewService.requestDiffReview(request.diff());
+        }
+        if (githubToken == null || request.owner() == null || request.repo() == null || request.base() == null
+                || request.head() == null) {
+            return ResponseEntity.badRequest().body(new Response(
+                    "Provide a diff, or owner, repo, base and head with an X-GitHub-Token header", null,
+                    HttpStatus.BAD_REQUEST.value()));
+        }
+        var diff = githubService.fetchCompareDiff(githubToken, request.owner(), request.repo(), request.base(),
+                request.head());
+        return reviewService.requestDiffReview(diff);
+    }
+
+    @PostMapping(path = "/repos/{owner}/{repo}", consumes = MediaType.ALL_VALUE, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter reviewRepository(@RegisteredOAuth2AuthorizedClient("github") OAuth2AuthorizedClient client,
+                                       @PathVariable String owner, @PathVariable String repo,
+                                       @RequestParam(defaultValue = "master") String branch) {
+        return repoReviewService.reviewRepository(client.getAccessToken().getTokenValue(), owner, repo, branch);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.damian.coderover.dto;
+
+import java.util.List;
+
+/**
+ * Verdicts for every file of a batch build review, in request order. The build is {@code blocked} when any file is,
+ * or when any file {@code failed} to get a verdict.
+ */
+public record BatchBuildReviewDTO(boolean blocked, int total, int blockedFiles, int failed, List<FileVerdictDTO> files) {
+}
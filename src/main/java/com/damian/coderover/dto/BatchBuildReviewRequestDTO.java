@@ -0,0 +1,6 @@
+package com.damian.coderover.dto;
+
+import java.util.List;
+
+public record BatchBuildReviewRequestDTO(List<BuildFileDTO> files) {
+}
@@ -5,6 +5,7 @@ public record BranchResponse(
         Commit commit
 ) {
     public record Commit(
+            String sha,
             CommitDetail commit
     ) {
         public record CommitDetail(
@@ -0,0 +1,4 @@
+package com.damian.coderover.dto;
+
+public record BuildFileDTO(String path, String content) {
+}
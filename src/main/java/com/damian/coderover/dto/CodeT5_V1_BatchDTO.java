@@ -0,0 +1,13 @@
+package com.damian.coderover.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Getter
+@Setter
+public class CodeT5_V1_BatchDTO implements Serializable {
+    private List<String> predictions;
+}
@@ -0,0 +1,7 @@
+package com.damian.coderover.dto;
+
+/**
+ * Either a unified {@code diff}, or the {@code owner}/{@code repo} and {@code base}/{@code head} commits to compare.
+ */
+public record DiffReviewRequestDTO(String diff, String owner, String repo, String base, String head) {
+}
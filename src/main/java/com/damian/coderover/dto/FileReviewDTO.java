@@ -0,0 +1,4 @@
+package com.damian.coderover.dto;
+
+public record FileReviewDTO(String path, String sha, Object review, String error) {
+}
@@ -0,0 +1,4 @@
+package com.damian.coderover.dto;
+
+public record FileVerdictDTO(String path, boolean blocked, String review, String error) {
+}
@@ -0,0 +1,8 @@
+package com.damian.coderover.dto;
+
+/**
+ * Outcome of a repository review. {@code skipped} counts the Java files left out by the
+ * {@code review.batch.max-files} cap; they are not part of {@code total}.
+ */
+public record RepoReviewSummaryDTO(int total, int reviewed, int failed, int skipped) {
+}
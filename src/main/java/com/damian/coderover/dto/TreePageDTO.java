@@ -0,0 +1,12 @@
+package com.damian.coderover.dto;
+
+import com.damian.coderover.dto.GitTreeResponse.TreeItem;
+
+import java.util.List;
+
+/**
+ * One page of a single directory level. {@code nextCursor} is {@code null} on the last page; entries of type
+ * {@code tree} carry the SHA to pass back when expanding that directory.
+ */
+public record TreePageDTO(String sha, List<TreeItem> tree, int total, String nextCursor) {
+}
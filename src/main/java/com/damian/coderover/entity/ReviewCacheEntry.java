@@ -0,0 +1,28 @@
+package com.damian.coderover.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "review_cache", indexes = @Index(name = "idx_review_cache_expires_at", columnList = "expiresAt"))
+@Builder
+@Getter
+@Setter
+public class ReviewCacheEntry {
+    @Id
+    @Column(length = 64)
+    private String cacheKey;
+
+    private String model;
+
+    @Lob
+    @Column(columnDefinition = "LONGTEXT")
+    private String payload;
+
+    private Instant createdAt;
+    private Instant expiresAt;
+}
@@ -2,11 +2,14 @@ package com.damian.coderover.entity;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import lombok.*;
 
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = @Index(name = "ux_user_email", columnList = "email", unique = true))
 @Builder
 @Getter
 @Setter
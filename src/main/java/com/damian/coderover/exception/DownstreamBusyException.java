@@ -0,0 +1,15 @@
+package com.damian.coderover.exception;
+
+import lombok.Getter;
+
+@Getter
+public class DownstreamBusyException extends RuntimeException {
+    private final String client;
+    private final long retryAfterSeconds;
+
+    public DownstreamBusyException(String client, long retryAfterSeconds) {
+        super(client + " is at its concurrency limit, retry in " + retryAfterSeconds + "s");
+        this.client = client;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -4,4 +4,8 @@ public class GithubException extends RuntimeException {
     public GithubException(String message) {
         super(message);
     }
+
+    public GithubException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
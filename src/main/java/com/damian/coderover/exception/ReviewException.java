@@ -4,4 +4,8 @@ public class ReviewException extends RuntimeException {
     public ReviewException(String message) {
         super(message);
     }
+
+    public ReviewException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
\ No newline at end of file
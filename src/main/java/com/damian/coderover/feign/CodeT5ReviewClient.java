@@ -1,18 +1,29 @@
 package com.damian.coderover.feign;
 
+import com.damian.coderover.config.CodeT5FeignConfig;
+import com.damian.coderover.dto.CodeT5_V1_BatchDTO;
 import com.damian.coderover.dto.CodeT5_V1_DTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.List;
 import java.util.Map;
 
-@FeignClient(name = "codeT5ReviewClient", url = "${codeT5.base-url}")
+@FeignClient(name = "codeT5ReviewClient", url = "${codeT5.base-url}", configuration = CodeT5FeignConfig.class)
 public interface CodeT5ReviewClient {
 
     @PostMapping("/predict/v1")
     ResponseEntity<CodeT5_V1_DTO> getV1Review(
             @RequestBody Map<String, String> requestBody
     );
+
+    /**
+     * Predicts for several snippets in one call; {@code predictions} are returned in the order of {@code codes}.
+     */
+    @PostMapping("/predict/v1/batch")
+    ResponseEntity<CodeT5_V1_BatchDTO> getV1BatchReview(
+            @RequestBody Map<String, List<String>> requestBody
+    );
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.damian.coderover.feign;
+
+import com.damian.coderover.util.ConditionalRequestStore;
+import com.damian.coderover.util.ConditionalRequestStore.Validated;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sends GitHub GETs with {@code If-None-Match} / {@code If-Modified-Since} when an earlier response for the same
+ * token and URL carried validators, and answers a {@code 304 Not Modified} with the stored body. GitHub does not
+ * count 304s against the rate limit. Git object endpoints ({@code /git/}) and archive downloads ({@code /zipball/}) are
+ * passed through untouched: they are immutable, cached by SHA elsewhere and may be streamed.
+ */
+@RequiredArgsConstructor
+@Log4j2
+public class ConditionalRequestClient implements Client {
+
+    private static final String GIT_OBJECTS_PATH = "/git/";
+    private static final String ARCHIVE_PATH = "/zipball/";
+
+    private final Client delegate;
+    private final ConditionalRequestStore store;
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (request.httpMethod() != Request.HttpMethod.GET || request.url().contains(GIT_OBJECTS_PATH)
+                || request.url().contains(ARCHIVE_PATH)) {
+            return delegate.execute(request, options);
+        }
+        var key = ConditionalRequestStore.key(authorization(request), request.url());
+        var stored = store.get(key);
+        var response = delegate.execute(stored.map(validated -> conditional(request, validated)).orElse(request), options);
+
+        if (response.status() == 304 && stored.isPresent()) {
+            log.debug("GitHub 304, serving stored body for {}", request.url());
+            response.close();
+            return replay(response, stored.get());
+        }
+        var etag = header(response.headers(), HttpHeaders.ETAG);
+        var lastModified = header(response.headers(), HttpHeaders.LAST_MODIFIED);
+        if (response.status() != 200 || response.body() == null || (etag == null && lastModified == null)) {
+            return response;
+        }
+        byte[] body;
+        try (response) {
+            body = Util.toByteArray(response.body().asInputStream());
+        }
+        var validated = new Validated(etag, lastModified, response.headers(), body);
+        store.put(key, validated);
+        return replay(response, validated);
+    }
+
+    private static Request conditional(Request request, Validated validated) {
+        var headers = new LinkedHashMap<String, Collection<String>>(request.headers());
+        if (validated.etag() != null) {
+            headers.put(HttpHeaders.IF_NONE_MATCH, List.of(validated.etag()));
+        }
+        if (validated.lastModified() != null) {
+            headers.put(HttpHeaders.IF_MODIFIED_SINCE, List.of(validated.lastModified()));
+        }
+        return Request.create(request.httpMethod(), request.url(), headers, request.body(), request.charset(),
+                request.requestTemplate());
+    }
+
+    private static Response replay(Response response, Validated validated) {
+        // Keep the fresh response's headers (rate limit, request id) but fall back to the stored ones for anything
+        // a 304 omits, such as Content-Type.
+        var headers = new TreeMap<String, Collection<String>>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(validated.headers());
+        headers.putAll(response.headers());
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        return response.toBuilder()
+                .status(200)
+                .reason("OK")
+                .headers(headers)
+                .body(validated.body())
+                .build();
+    }
+
+    private static String authorization(Request request) {
+        return header(request.headers(), HttpHeaders.AUTHORIZATION);
+    }
+
+    private static String header(Map<String, Collection<String>> headers, String name) {
+        return headers.entrySet().stream()
+                .filter(entry -> entry.getKey().equalsIgnoreCase(name) && !entry.getValue().isEmpty())
+                .map(entry -> entry.getValue().iterator().next())
+                .findFirst()
+                .orElse(null);
+    }
+}
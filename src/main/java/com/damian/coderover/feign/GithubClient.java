@@ -1,10 +1,12 @@
 package com.damian.coderover.feign;
 
+import com.damian.coderover.config.GithubFeignConfig;
 import com.damian.coderover.dto.BranchResponse;
 import com.damian.coderover.dto.GitBlobResponse;
 import com.damian.coderover.dto.GitTreeResponse;
 import com.damian.coderover.dto.RepoDTO;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestHeader;
@@ -12,7 +14,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import java.util.List;
 import java.util.Map;
 
-@FeignClient(name = "GithubClient", url = "${github.base-uri}")
+@FeignClient(name = "GithubClient", url = "${github.base-uri}", configuration = GithubFeignConfig.class)
 public interface GithubClient {
 
     @GetMapping(value = "/user/repos", headers = "Accept=application/vnd.github+json")
@@ -22,6 +24,13 @@ public interface GithubClient {
             @org.springframework.web.bind.annotation.RequestParam(value = "page", required = false) Integer page
     );
 
+    @GetMapping(value = "/user/repos", headers = "Accept=application/vnd.github+json")
+    ResponseEntity<List<RepoDTO>> getUserReposPage(
+            @RequestHeader("Authorization") String authHeader,
+            @org.springframework.web.bind.annotation.RequestParam("per_page") int perPage,
+            @org.springframework.web.bind.annotation.RequestParam("page") int page
+    );
+
     @GetMapping("/repos/{owner}/{repo}/git/trees/{sha}?recursive=1")
     GitTreeResponse getRepoTree(
             @RequestHeader("Authorization") String authHeader,
@@ -30,6 +39,38 @@ public interface GithubClient {
             @PathVariable String sha
     );
 
+    @GetMapping("/repos/{owner}/{repo}/git/trees/{sha}")
+    GitTreeResponse getTreeLevel(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable String owner,
+            @PathVariable String repo,
+            @PathVariable String sha
+    );
+
+    @GetMapping("/repos/{owner}/{repo}/git/trees/{sha}?recursive=1")
+    feign.Response streamRepoTree(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable String owner,
+            @PathVariable String repo,
+            @PathVariable String sha
+    );
+
+    @GetMapping(value = "/repos/{owner}/{repo}/compare/{basehead}", headers = "Accept=application/vnd.github.diff")
+    String getCompareDiff(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable String owner,
+            @PathVariable String repo,
+            @PathVariable String basehead
+    );
+
+    @GetMapping("/repos/{owner}/{repo}/zipball/{ref}")
+    feign.Response downloadZipball(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable String owner,
+            @PathVariable String repo,
+            @PathVariable String ref
+    );
+
     @GetMapping(
             value = "/repos/{owner}/{repo}/git/blobs/{sha}",
             headers = "Accept: application/vnd.github+json"
@@ -41,6 +82,13 @@ public interface GithubClient {
             @PathVariable("sha") String sha
     );
 
+    @GetMapping(value = "/repos/{owner}/{repo}", headers = "Accept=application/vnd.github+json")
+    RepoDTO getRepository(
+            @RequestHeader("Authorization") String authHeader,
+            @PathVariable String owner,
+            @PathVariable String repo
+    );
+
     @GetMapping("/repos/{owner}/{repo}/branches/{branch}")
     BranchResponse getBranchDetails(
             @RequestHeader("Authorization") String token,
@@ -0,0 +1,43 @@
+package com.damian.coderover.feign;
+
+import com.damian.coderover.exception.DownstreamBusyException;
+import com.damian.coderover.util.AdaptiveLimiter;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+
+/**
+ * Admits a Feign call only when the client's {@link AdaptiveLimiter} has a free permit, otherwise fails fast with
+ * {@link DownstreamBusyException}. Latency is measured up to the response headers; 429 and 5xx responses and I/O
+ * errors count as overload.
+ */
+@RequiredArgsConstructor
+public class LimitingClient implements Client {
+
+    private final String name;
+    private final AdaptiveLimiter limiter;
+    private final Client delegate;
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (!limiter.tryAcquire()) {
+            throw new DownstreamBusyException(name, limiter.retryAfterSeconds());
+        }
+        var start = System.nanoTime();
+        try {
+            var response = delegate.execute(request, options);
+            if (response.status() == 429 || response.status() >= 500) {
+                limiter.onDropped();
+            } else {
+                limiter.onSuccess(System.nanoTime() - start);
+            }
+            return response;
+        } catch (IOException | RuntimeException e) {
+            limiter.onDropped();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.damian.coderover.feign;
+
+import com.damian.coderover.exception.DownstreamBusyException;
+import com.damian.coderover.util.GithubRateBudget;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Sends GitHub calls only when {@link GithubRateBudget} allows them and feeds it the rate limit headers of every
+ * response. A primary or secondary rate limit response (403/429) blocks the token for the time GitHub asks for;
+ * when that is within the budget's max wait the call is retried once, otherwise it fails with
+ * {@link DownstreamBusyException} so the caller sees 503 with a {@code Retry-After}.
+ */
+@RequiredArgsConstructor
+@Log4j2
+public class RateLimitAwareClient implements Client {
+
+    private static final String CLIENT = "github";
+    private static final String LIMIT = "x-ratelimit-limit";
+    private static final String REMAINING = "x-ratelimit-remaining";
+    private static final String RESET = "x-ratelimit-reset";
+    private static final String RESOURCE = "x-ratelimit-resource";
+    private static final Duration SECONDARY_BACKOFF = Duration.ofMinutes(1);
+
+    private final Client delegate;
+    private final GithubRateBudget budget;
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        var authorization = header(request.headers(), HttpHeaders.AUTHORIZATION);
+        for (int attempt = 0; ; attempt++) {
+            try {
+                budget.acquire(authorization);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the GitHub rate limit");
+            }
+            var response = delegate.execute(request, options);
+            var remaining = intHeader(response.headers(), REMAINING);
+            budget.update(authorization, header(response.headers(), RESOURCE), intHeader(response.headers(), LIMIT),
+                    remaining, longHeader(response.headers(), RESET));
+            if (response.status() != 403 && response.status() != 429) {
+                return response;
+            }
+            byte[] body;
+            try (response) {
+                body = response.body() == null ? null : Util.toByteArray(response.body().asInputStream());
+            }
+            var backoff = rateLimitBackoff(response.headers(), remaining, body);
+            if (backoff == null) {
+                return response.toBuilder().body(body).build();
+            }
+            budget.block(authorization, backoff);
+            log.warn("GitHub rate limit hit for {}, backing off {}s", request.url(), backoff.toSeconds());
+            if (attempt > 0 || backoff.compareTo(budget.maxWait()) > 0) {
+                throw new DownstreamBusyException(CLIENT, Math.max(1, backoff.toSeconds()));
+            }
+        }
+    }
+
+    /**
+     * Returns how long GitHub asks us to wait, or {@code null} if the 403/429 is not a rate limit (e.g. a
+     * permission error), following GitHub's guidance: {@code Retry-After} first, then the reset time of an
+     * exhausted primary limit, then one minute for a secondary limit without either.
+     */
+    private static Duration rateLimitBackoff(Map<String, Collection<String>> headers, Integer remaining, byte[] body) {
+        var retryAfter = longHeader(headers, HttpHeaders.RETRY_AFTER);
+        if (retryAfter != null) {
+            return Duration.ofSeconds(retryAfter);
+        }
+        var reset = longHeader(headers, RESET);
+        if (remaining != null && remaining == 0 && reset != null) {
+            return Duration.ofMillis(Math.max(1000, reset * 1000 - System.currentTimeMillis()));
+        }
+        if (body == null) {
+            return null;
+        }
+        return new String(body, StandardCharsets.UTF_8).toLowerCase().contains("rate limit") ? SECONDARY_BACKOFF : null;
+    }
+
+    private static Integer intHeader(Map<String, Collection<String>> headers, String name) {
+        var value = longHeader(headers, name);
+        return value == null ? null : value.intValue();
+    }
+
+    private static Long longHeader(Map<String, Collection<String>> headers, String name) {
+        var value = header(headers, name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String header(Map<String, Collection<String>> headers, String name) {
+        return headers.entrySet().stream()
+                .filter(entry -> entry.getKey().equalsIgnoreCase(name) && !entry.getValue().isEmpty())
+                .map(entry -> entry.getValue().iterator().next())
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -1,6 +1,8 @@
 package com.damian.coderover.feign;
 
+import com.damian.coderover.config.ReviewFeignConfig;
 import com.damian.coderover.dto.ReviewResponseDTO;
+import feign.Response;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -9,7 +11,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 
 import java.util.Map;
 
-@FeignClient(name = "reviewClient", url = "${review.client.base-url}")
+@FeignClient(name = "reviewClient", url = "${review.client.base-url}", configuration = ReviewFeignConfig.class)
 public interface ReviewClient {
 
     @PostMapping("/v1/responses")
@@ -17,4 +19,10 @@ public interface ReviewClient {
             @RequestHeader("Authorization") String authorization,
             @RequestBody Map<String, Object> requestBody
     );
+
+    @PostMapping(value = "/v1/responses", headers = "Accept=text/event-stream")
+    Response streamCodeReview(
+            @RequestHeader("Authorization") String authorization,
+            @RequestBody Map<String, Object> requestBody
+    );
 }
\ No newline at end of file
@@ -1,15 +1,14 @@
 package com.damian.coderover.filter;
 
+import com.damian.coderover.util.JwtUtils;
 import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,11 +17,11 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 @Component
+@RequiredArgsConstructor
 @Log4j2
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
@@ -44,8 +43,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final String EXC_JWT_INVALID = "Invalid JWT token: ";
     private static final String UNEXPECTED_ERROR_OCCURRED = "Unexpected error occurred while processing the JWT: ";
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    private final JwtUtils jwtUtils;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
@@ -75,6 +73,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             log.warn(LOG_INVALID_TOKEN);
             return;
         }
+        jwtUtils.exposeClaims(request, token, claims);
         var username = claims.getSubject();
         if (username == null || claims.getExpiration() == null) {
             log.warn(LOG_INVALID_TOKEN);
@@ -101,8 +100,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private io.jsonwebtoken.Claims parseClaims(String token) {
         try {
-            var key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-            return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+            return jwtUtils.parseJwt(token);
         } catch (Exception e) {
             log.warn(LOG_JWT_VALIDATION_FAILED, e.getMessage());
             throw new JwtException(LOG_JWT_VALIDATION_FAILED + " " + e.getMessage());
@@ -1,18 +1,38 @@
 package com.damian.coderover.handler;
 
+import com.damian.coderover.exception.DownstreamBusyException;
 import com.damian.coderover.exception.GithubException;
 import com.damian.coderover.exception.ReviewException;
 import com.damian.coderover.response.Response;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 @RestControllerAdvice
 public class ExceptionHandler {
-    @org.springframework.web.bind.annotation.ExceptionHandler(exception = {GithubException.class, ReviewException.class})
-    public ResponseEntity<Response> handleGithubException(GithubException ex) {
+    @org.springframework.web.bind.annotation.ExceptionHandler(exception = {GithubException.class, ReviewException.class,
+            DownstreamBusyException.class})
+    public ResponseEntity<Response> handleGithubException(RuntimeException ex) {
+        var busy = busyCause(ex);
+        if (busy != null) {
+            var response = new Response("Service is busy, please retry later : " + busy.getMessage(),
+                    null, HttpStatus.SERVICE_UNAVAILABLE.value());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(busy.getRetryAfterSeconds()))
+                    .body(response);
+        }
         var response = new Response("Inter Service error occurred : " + ex.getMessage(),
                 null, HttpStatus.INTERNAL_SERVER_ERROR.value());
         return ResponseEntity.internalServerError().body(response);
     }
+
+    private static DownstreamBusyException busyCause(Throwable ex) {
+        for (var cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DownstreamBusyException busy) {
+                return busy;
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,37 @@
+package com.damian.coderover.repository;
+
+import com.damian.coderover.entity.EmailOutboxEntry;
+import com.damian.coderover.entity.EmailOutboxEntry.Status;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface EmailOutboxRepo extends JpaRepository<EmailOutboxEntry, Long> {
+    Optional<EmailOutboxEntry> findByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * Locks due entries with {@code SKIP LOCKED}, so that concurrent dispatchers claim disjoint batches.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<EmailOutboxEntry> findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(Status status, Instant now,
+                                                                                          Limit limit);
+
+    long countByStatus(Status status);
+
+    @Modifying
+    @Transactional
+    @Query("delete from EmailOutboxEntry e where e.status = :status and e.sentAt < :before")
+    int deleteByStatusAndSentAtBefore(@Param("status") Status status, @Param("before") Instant before);
+}
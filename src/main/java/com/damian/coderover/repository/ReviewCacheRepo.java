@@ -0,0 +1,17 @@
+package com.damian.coderover.repository;
+
+import com.damian.coderover.entity.ReviewCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface ReviewCacheRepo extends JpaRepository<ReviewCacheEntry, String> {
+    @Modifying
+    @Transactional
+    @Query("delete from ReviewCacheEntry e where e.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
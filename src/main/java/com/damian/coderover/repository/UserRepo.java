@@ -2,9 +2,39 @@ package com.damian.coderover.repository;
 
 import com.damian.coderover.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface UserRepo extends JpaRepository<User, String> {
     Optional<User> findByEmail(String email);
-}
\ No newline at end of file
+
+    /**
+     * Inserts {@code user}, or refreshes the profile of the row that already holds its email, in one statement.
+     * Relies on the unique {@code ux_user_email} index; the stored id is never changed. The new row is referenced
+     * through the {@code new} row alias (MySQL 8.0.19+) rather than the deprecated {@code VALUES()} function.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into `user` (id, name, email, login, profile_picurl, company, blog, location, bio, public_repos,
+                                private_repos, public_gists, followers, following, site_admin, two_factor_auth,
+                                account_type, plan_name, plan_space)
+            values (:#{#user.id}, :#{#user.name}, :#{#user.email}, :#{#user.login}, :#{#user.profilePicURL},
+                    :#{#user.company}, :#{#user.blog}, :#{#user.location}, :#{#user.bio}, :#{#user.publicRepos},
+                    :#{#user.privateRepos}, :#{#user.publicGists}, :#{#user.followers}, :#{#user.following},
+                    :#{#user.siteAdmin}, :#{#user.twoFactorAuth}, :#{#user.accountType}, :#{#user.planName},
+                    :#{#user.planSpace}) as new
+            on duplicate key update name = new.name, login = new.login, profile_picurl = new.profile_picurl,
+                                    company = new.company, blog = new.blog, location = new.location, bio = new.bio,
+                                    public_repos = new.public_repos, private_repos = new.private_repos,
+                                    public_gists = new.public_gists, followers = new.followers,
+                                    following = new.following, site_admin = new.site_admin,
+                                    two_factor_auth = new.two_factor_auth, account_type = new.account_type,
+                                    plan_name = new.plan_name, plan_space = new.plan_space
+            """, nativeQuery = true)
+    int upsert(@Param("user") User user);
+}
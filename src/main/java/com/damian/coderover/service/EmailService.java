@@ -5,5 +5,5 @@ import com.damian.coderover.response.Response;
 import org.springframework.http.ResponseEntity;
 
 public interface EmailService {
-    ResponseEntity<Response> sendReport(ReportEmailDTO dto);
+    ResponseEntity<Response> sendReport(ReportEmailDTO dto, String idempotencyKey);
 }
\ No newline at end of file
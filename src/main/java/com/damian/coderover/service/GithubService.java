@@ -2,14 +2,27 @@ package com.damian.coderover.service;
 
 import com.damian.coderover.response.Response;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public interface GithubService {
     ResponseEntity<Response> fetchUserRepos(String accessToken, Integer perPage, Integer page);
 
+    ResponseEntity<StreamingResponseBody> streamAllJavaRepos(String accessToken);
+
     ResponseEntity<Response> fetchRepoTree(String accessToken, String owner, String repo, String branch);
 
+    ResponseEntity<StreamingResponseBody> streamRepoTree(String accessToken, String owner, String repo, String branch,
+                                                         String pathPrefix, String extension);
+
+    ResponseEntity<Response> fetchTreeLevel(String accessToken, String owner, String repo, String branch, String sha,
+                                            String path, String cursor, int limit);
+
+    ResponseEntity<Response> fetchRepoSnapshot(String accessToken, String owner, String repo, String branch);
+
     ResponseEntity<Response> fetchFileBlob(String accessToken, String owner, String repo, String sha);
 
+    String fetchCompareDiff(String accessToken, String owner, String repo, String base, String head);
+
     ResponseEntity<Response> fetchBranchDetails(String accessToken, String owner, String repo, String branch);
 
     ResponseEntity<Response> fetchAllBranches(String accessToken, String owner, String repo);
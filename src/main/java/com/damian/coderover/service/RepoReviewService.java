@@ -0,0 +1,7 @@
+package com.damian.coderover.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface RepoReviewService {
+    SseEmitter reviewRepository(String accessToken, String owner, String repo, String branch);
+}
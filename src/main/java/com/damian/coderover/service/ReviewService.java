@@ -1,11 +1,18 @@
 package com.damian.coderover.service;
 
+import com.damian.coderover.dto.BuildFileDTO;
 import com.damian.coderover.response.Response;
 
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
 
 
 public interface ReviewService {
     ResponseEntity<Response> requestCodeReview(String code,boolean isBuildReview);
+    SseEmitter streamCodeReview(String code, boolean isBuildReview);
     ResponseEntity<Response> requestCodeReviewFromCodeT5V1(String code);
+    ResponseEntity<Response> requestDiffReview(String diff);
+    ResponseEntity<Response> requestBatchBuildReview(List<BuildFileDTO> files);
 }
\ No newline at end of file
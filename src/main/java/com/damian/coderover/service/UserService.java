@@ -10,6 +10,8 @@ public interface UserService {
 
     ResponseEntity<Response> fetchUserInfo();
 
+    ResponseEntity<Response> fetchUserInfo(String fields);
+
     User persistUser(User user);
 
     Optional<User> fetchUserByEmail(String email);
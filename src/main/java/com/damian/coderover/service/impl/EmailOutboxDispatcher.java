@@ -0,0 +1,169 @@
+package com.damian.coderover.service.impl;
+
+import com.damian.coderover.entity.EmailOutboxEntry;
+import com.damian.coderover.entity.EmailOutboxEntry.Status;
+import com.damian.coderover.repository.EmailOutboxRepo;
+import com.damian.coderover.util.SmtpTransportPool;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the {@code email_outbox} table. Each run claims a batch of due entries by pushing their next attempt out by
+ * {@code mail.outbox.lease} (rows are locked with {@code SKIP LOCKED}, so several instances claim disjoint batches),
+ * sends them over pooled SMTP connections and records the outcome. Failed sends are retried with exponential backoff
+ * until {@code mail.outbox.max-attempts}. An instance that dies mid-batch simply lets the lease run out. Every
+ * message carries a {@code Message-ID} derived from its idempotency key, so a resend after such a crash is
+ * recognisable as a duplicate.
+ */
+@Service
+@Log4j2
+@RequiredArgsConstructor
+public class EmailOutboxDispatcher {
+
+    private static final String METRIC_DEPTH = "email.outbox.depth";
+    private static final String METRIC_SEND = "email.outbox.send";
+    private static final String TAG_OUTCOME = "outcome";
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepo emailOutboxRepo;
+    private final SmtpTransportPool smtpTransportPool;
+    private final TransactionOperations transactionOperations;
+    private final MeterRegistry meterRegistry;
+    @Qualifier("emailExecutor")
+    private final ExecutorService emailExecutor;
+
+    @Value("${mail.from:}")
+    private String from;
+
+    @Value("${spring.mail.username}")
+    private String smtpUsername;
+
+    @Value("${mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.backoff-initial:PT30S}")
+    private Duration backoffInitial;
+
+    @Value("${mail.outbox.backoff-max:PT1H}")
+    private Duration backoffMax;
+
+    @Value("${mail.outbox.lease:PT5M}")
+    private Duration lease;
+
+    @Value("${mail.outbox.retention:P7D}")
+    private Duration retention;
+
+    private final AtomicLong depth = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder(METRIC_DEPTH, depth, AtomicLong::get)
+                .description("Report emails waiting in the outbox")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:5000}")
+    public void dispatch() {
+        var batch = claimBatch();
+        if (!batch.isEmpty()) {
+            log.debug("Dispatching {} outbox emails", batch.size());
+            CompletableFuture.allOf(batch.stream()
+                    .map(entry -> CompletableFuture.runAsync(() -> deliver(entry), emailExecutor))
+                    .toArray(CompletableFuture[]::new)).join();
+        }
+        depth.set(emailOutboxRepo.countByStatus(Status.PENDING));
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.purge-interval-ms:3600000}")
+    public void purgeSent() {
+        var purged = emailOutboxRepo.deleteByStatusAndSentAtBefore(Status.SENT, Instant.now().minus(retention));
+        if (purged > 0) {
+            log.info("Purged {} sent outbox emails", purged);
+        }
+    }
+
+    List<EmailOutboxEntry> claimBatch() {
+        return transactionOperations.execute(status -> {
+            var now = Instant.now();
+            var due = emailOutboxRepo.findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(Status.PENDING,
+                    now, Limit.of(batchSize));
+            due.forEach(entry -> entry.setNextAttemptAt(now.plus(lease)));
+            return emailOutboxRepo.saveAll(due);
+        });
+    }
+
+    void deliver(EmailOutboxEntry entry) {
+        var sample = Timer.start(meterRegistry);
+        String outcome;
+        try {
+            smtpTransportPool.send(buildMessage(entry));
+            entry.setStatus(Status.SENT);
+            entry.setSentAt(Instant.now());
+            entry.setLastError(null);
+            outcome = "sent";
+            log.info("Email sent successfully to {}", entry.getRecipient());
+        } catch (MessagingException | RuntimeException e) {
+            var attempts = entry.getAttempts() + 1;
+            entry.setAttempts(attempts);
+            entry.setLastError(truncate(e.getMessage()));
+            if (attempts >= maxAttempts) {
+                entry.setStatus(Status.FAILED);
+                outcome = "failed";
+                log.error("Giving up on email to {} after {} attempts: {}", entry.getRecipient(), attempts, e.getMessage());
+            } else {
+                entry.setNextAttemptAt(Instant.now().plus(backoff(attempts)));
+                outcome = "retry";
+                log.warn("Failed to send email to {} (attempt {}), retrying at {}: {}", entry.getRecipient(), attempts,
+                        entry.getNextAttemptAt(), e.getMessage());
+            }
+        }
+        sample.stop(meterRegistry.timer(METRIC_SEND, TAG_OUTCOME, outcome));
+        emailOutboxRepo.save(entry);
+    }
+
+    Duration backoff(int attempts) {
+        var shift = Math.min(attempts - 1, 30);
+        var delay = backoffInitial.multipliedBy(1L << shift);
+        return delay.compareTo(backoffMax) > 0 ? backoffMax : delay;
+    }
+
+    private MimeMessage buildMessage(EmailOutboxEntry entry) throws MessagingException {
+        var message = smtpTransportPool.newMessage("<" + entry.getIdempotencyKey() + "@coderover>");
+        var effectiveFrom = (from != null && !from.isBlank()) ? from : smtpUsername;
+        if (effectiveFrom != null && !effectiveFrom.isBlank()) {
+            message.setFrom(new InternetAddress(effectiveFrom));
+        }
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(entry.getRecipient()));
+        message.setSubject(entry.getSubject());
+        message.setText(entry.getBody());
+        return message;
+    }
+
+    private static String truncate(String error) {
+        return error == null || error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
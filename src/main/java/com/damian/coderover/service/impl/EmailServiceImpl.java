@@ -1,24 +1,28 @@
 package com.damian.coderover.service.impl;
 
 import com.damian.coderover.dto.ReportEmailDTO;
+import com.damian.coderover.entity.EmailOutboxEntry;
+import com.damian.coderover.repository.EmailOutboxRepo;
 import com.damian.coderover.response.Response;
 import com.damian.coderover.service.EmailService;
+import com.damian.coderover.util.Digests;
 import com.damian.coderover.util.JwtUtils;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
-import jakarta.mail.*;
+import jakarta.mail.internet.AddressException;
 import jakarta.mail.internet.InternetAddress;
-import jakarta.mail.internet.MimeMessage;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
-import java.util.Properties;
+import java.time.Instant;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -27,48 +31,14 @@ public class EmailServiceImpl implements EmailService {
 
     private static final String COOKIE_NAME = "access_token";
     private static final String CLAIM_EMAIL = "email";
+    private static final String OUTBOX_KEY_PREFIX = "email-outbox";
 
     private final JwtUtils jwtUtils;
     private final HttpServletRequest request;
-
-    @Value("${mail.from:}")
-    private String from;
-
-    @Value("${spring.mail.host}")
-    private String smtpHost;
-
-    @Value("${spring.mail.port}")
-    private int smtpPort;
-
-    @Value("${spring.mail.username}")
-    private String smtpUsername;
-
-    @Value("${spring.mail.password}")
-    private String smtpPassword;
-
-    @Value("${spring.mail.properties.mail.smtp.starttls.enable:true}")
-    private boolean smtpStartTls;
-
-    @Value("${spring.mail.properties.mail.smtp.starttls.required:false}")
-    private boolean smtpStartTlsRequired;
-
-    @Value("${spring.mail.properties.mail.smtp.auth:true}")
-    private boolean smtpAuth;
-
-    @Value("${spring.mail.properties.mail.smtp.connectiontimeout:0}")
-    private int connectionTimeoutMs;
-
-    @Value("${spring.mail.properties.mail.smtp.timeout:0}")
-    private int readTimeoutMs;
-
-    @Value("${spring.mail.properties.mail.smtp.writetimeout:0}")
-    private int writeTimeoutMs;
-
-    @Value("${spring.mail.properties.mail.smtp.ssl.trust:}")
-    private String sslTrust;
+    private final EmailOutboxRepo emailOutboxRepo;
 
     @Override
-    public ResponseEntity<Response> sendReport(ReportEmailDTO dto) {
+    public ResponseEntity<Response> sendReport(ReportEmailDTO dto, String idempotencyKey) {
         var token = extractTokenFromCookies();
         if (token == null) {
             log.debug("No access_token cookie found in request");
@@ -77,7 +47,7 @@ public class EmailServiceImpl implements EmailService {
         }
         final Claims claims;
         try {
-            claims = jwtUtils.parseJwt(token);
+            claims = jwtUtils.claimsFor(request, token);
             log.debug("Parsed JWT claims: {}", claims);
         } catch (JwtException ex) {
             log.warn("JWT parse failed: {}", ex.getMessage());
@@ -97,56 +67,40 @@ public class EmailServiceImpl implements EmailService {
         log.debug("Preparing to send email. To: {}, Subject: {}, Body:\n{}", toEmail, subject, body);
 
         try {
-            sendMimeEmail(toEmail, subject, body);
-            log.info("Email sent successfully to {}", toEmail);
-            return ResponseEntity.ok(new Response("Report email sent successfully", null, HttpStatus.OK.value()));
-        } catch (MessagingException e) {
-            log.error("Failed to send email to {}: {}", toEmail, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(new Response("Failed to send email", null, HttpStatus.INTERNAL_SERVER_ERROR.value()));
+            new InternetAddress(toEmail, true);
+        } catch (AddressException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new Response("Invalid recipient email in token", null, HttpStatus.BAD_REQUEST.value()));
         }
-    }
 
-    private void sendMimeEmail(String toEmail, String subject, String textBody) throws MessagingException {
-        var props = getProperties();
-
-        Authenticator authenticator = smtpAuth
-                ? new Authenticator() {
-            @Override
-            protected PasswordAuthentication getPasswordAuthentication() {
-                return new PasswordAuthentication(smtpUsername, smtpPassword);
+        // Client-supplied keys are scoped to the recipient so that two users can never collide on the same key.
+        var outboxKey = idempotencyKey == null || idempotencyKey.isBlank()
+                ? Digests.sha256(OUTBOX_KEY_PREFIX, UUID.randomUUID().toString())
+                : Digests.sha256(OUTBOX_KEY_PREFIX, toEmail, idempotencyKey);
+        try {
+            if (emailOutboxRepo.findByIdempotencyKey(outboxKey).isEmpty()) {
+                var now = Instant.now();
+                emailOutboxRepo.save(EmailOutboxEntry.builder()
+                        .idempotencyKey(outboxKey)
+                        .recipient(toEmail)
+                        .subject(subject)
+                        .body(body)
+                        .status(EmailOutboxEntry.Status.PENDING)
+                        .nextAttemptAt(now)
+                        .createdAt(now)
+                        .build());
+            } else {
+                log.debug("Report email with idempotency key {} already queued", idempotencyKey);
             }
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Report email with idempotency key {} queued concurrently", idempotencyKey);
+        } catch (DataAccessException e) {
+            log.error("Failed to queue email to {}: {}", toEmail, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new Response("Failed to send email", null, HttpStatus.INTERNAL_SERVER_ERROR.value()));
         }
-                : null;
-
-        var session = Session.getInstance(props, authenticator);
-
-        var message = new MimeMessage(session);
-        var effectiveFrom = (from != null && !from.isBlank()) ? from : smtpUsername;
-        if (effectiveFrom != null && !effectiveFrom.isBlank()) {
-            message.setFrom(new InternetAddress(effectiveFrom));
-        }
-        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(toEmail));
-        message.setSubject(subject);
-        message.setText(textBody);
-
-        log.debug("Final email message ready. From={}, To={}, Subject={}", effectiveFrom, toEmail, subject);
-
-        Transport.send(message);
-    }
-
-    private Properties getProperties() {
-        var props = new Properties();
-        props.put("mail.smtp.auth", String.valueOf(smtpAuth));
-        props.put("mail.smtp.starttls.enable", String.valueOf(smtpStartTls));
-        props.put("mail.smtp.starttls.required", String.valueOf(smtpStartTlsRequired));
-        props.put("mail.smtp.host", smtpHost);
-        props.put("mail.smtp.port", String.valueOf(smtpPort));
-        if (connectionTimeoutMs > 0) props.put("mail.smtp.connectiontimeout", String.valueOf(connectionTimeoutMs));
-        if (readTimeoutMs > 0) props.put("mail.smtp.timeout", String.valueOf(readTimeoutMs));
-        if (writeTimeoutMs > 0) props.put("mail.smtp.writetimeout", String.valueOf(writeTimeoutMs));
-        if (sslTrust != null && !sslTrust.isBlank()) props.put("mail.smtp.ssl.trust", sslTrust);
-        return props;
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new Response("Report email queued for delivery", null, HttpStatus.ACCEPTED.value()));
     }
 
     private String extractTokenFromCookies() {
@@ -1,15 +1,56 @@
 package com.damian.coderover.service.impl;
 
 import com.damian.coderover.dto.BranchResponse;
+import com.damian.coderover.dto.GitBlobResponse;
+import com.damian.coderover.dto.GitTreeResponse.TreeItem;
+import com.damian.coderover.dto.GitTreeResponse;
+import com.damian.coderover.dto.RepoDTO;
+import com.damian.coderover.dto.TreePageDTO;
+import com.damian.coderover.exception.DownstreamBusyException;
 import com.damian.coderover.exception.GithubException;
 import com.damian.coderover.feign.GithubClient;
 import com.damian.coderover.response.Response;
 import com.damian.coderover.service.GithubService;
+import com.damian.coderover.util.BlobCache;
+import com.damian.coderover.util.BoundedCache;
+import com.damian.coderover.util.Digests;
+import com.damian.coderover.util.GithubRateBudget;
+import com.damian.coderover.util.RepoSnapshotStore;
+import com.damian.coderover.util.SingleFlight;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 @Service
 @Log4j2
@@ -20,8 +61,59 @@ public class GithubServiceImpl implements GithubService {
     private static final String SUCCESS = "successfully";
     private static final String ERROR_BRANCH_NOT_FOUND = "Branch not found!";
     private static final String ERROR_NULL_BRANCH_SHA = "Tree SHA missing in branch commit.";
+    private static final String ERROR_NULL_COMMIT_SHA = "Commit SHA missing in branch details.";
+
+    private static final String ERROR_INVALID_CURSOR = "Invalid tree cursor.";
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ObjectMapper REPO_WRITER = new ObjectMapper();
+    private static final int REPOS_PER_PAGE = 100;
+    private static final Pattern LAST_PAGE = Pattern.compile("<[^>]*[?&]page=(\\d+)[^>]*>;\\s*rel=\"last\"");
 
     private final GithubClient githubClient;
+    private final BlobCache blobCache;
+    private final RepoSnapshotStore snapshotStore;
+    @Qualifier("githubPageExecutor")
+    private final ExecutorService githubPageExecutor;
+
+    @Value("${github.tree-cache.max-entries:200000}")
+    private long treeCacheMaxEntries;
+
+    @Value("${github.repos.max-pages:50}")
+    private int maxRepoPages;
+
+    @Value("${github.repos.cache-ttl:60s}")
+    private Duration repoCacheTtl;
+
+    @Value("${github.repos.cache-max-entries:1000}")
+    private long repoCacheMaxEntries;
+
+    @Value("${github.access-cache.ttl:30s}")
+    private Duration accessCacheTtl;
+
+    @Value("${github.access-cache.max-entries:10000}")
+    private long accessCacheMaxEntries;
+
+    // Non-recursive tree listings keyed by owner/repo/tree SHA and weighed by entry count. Tree objects are
+    // immutable, so cached levels never go stale and paging or re-expanding a directory needs no further call.
+    // A level is only served to a token that has just been checked against its repository.
+    private BoundedCache<String, GitTreeResponse> treeLevels;
+
+    private final SingleFlight<String, RepoSnapshotStore.Snapshot> snapshotDownloads = new SingleFlight<>();
+
+    // Every Java repository of a user, keyed by token. Repository lists change, so entries live only briefly.
+    private BoundedCache<String, List<RepoDTO>> javaRepos;
+
+    // Repositories a token was recently allowed to read, keyed by a digest of token and repository. Shared caches
+    // are only consulted after this check, and a revoked grant is noticed within github.access-cache.ttl.
+    private BoundedCache<String, Boolean> repoAccess;
+
+    @PostConstruct
+    public void init() {
+        treeLevels = new BoundedCache<>(treeCacheMaxEntries, tree -> tree.tree() == null ? 1 : tree.tree().size());
+        javaRepos = new BoundedCache<>(repoCacheMaxEntries, repos -> 1L, repoCacheTtl);
+        repoAccess = new BoundedCache<>(accessCacheMaxEntries, granted -> 1L, accessCacheTtl);
+    }
 
     public static String withBearer(String accessToken) {
         if (accessToken == null || accessToken.isBlank()) {
@@ -40,44 +132,184 @@ public class GithubServiceImpl implements GithubService {
                 .toList();
             return ResponseEntity.ok(new Response("User repositories fetched successfully", javaRepos, HttpStatus.OK.value()));
         } catch (Exception e) {
-            throw new GithubException("Failed to fetch user repositories: " + e.getMessage());
+            throw new GithubException("Failed to fetch user repositories: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Streams every Java repository of the user. The first page is fetched here, so that a GitHub error is still
+     * reported as an error response; its {@code Link} header gives the last page, and all remaining pages are
+     * fetched in parallel as bulk calls, so they leave the rate limit reserve to interactive requests, and written
+     * in page order as they arrive. A page that fails or that the rate limit budget holds back ends the list early
+     * instead of failing the request or breaking the JSON; such a list, like one cut off at
+     * {@code github.repos.max-pages}, is marked {@code truncated} and is not cached. A complete list is cached per
+     * token for {@code github.repos.cache-ttl}.
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> streamAllJavaRepos(String accessToken) {
+        var authHeader = withBearer(accessToken);
+        var cacheKey = Digests.sha256("user-repos", authHeader);
+        var cached = javaRepos.get(cacheKey);
+        if (cached.isPresent()) {
+            var repos = cached.get();
+            StreamingResponseBody body = out -> writeRepos(out, List.of(CompletableFuture.completedFuture(repos)), false);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+        }
+        List<CompletableFuture<List<RepoDTO>>> pages = new ArrayList<>();
+        boolean overPageCap;
+        try {
+            var first = githubClient.getUserReposPage(authHeader, REPOS_PER_PAGE, 1);
+            pages.add(CompletableFuture.completedFuture(javaOnly(first.getBody())));
+            var availablePages = lastPage(first.getHeaders());
+            overPageCap = availablePages > maxRepoPages;
+            if (overPageCap) {
+                log.warn("Listing only {} of {} repository pages", maxRepoPages, availablePages);
+            }
+            var lastPage = Math.min(availablePages, maxRepoPages);
+            for (int page = 2; page <= lastPage; page++) {
+                var pageNumber = page;
+                try {
+                    pages.add(CompletableFuture.supplyAsync(() -> GithubRateBudget.callWith(
+                            GithubRateBudget.Priority.BULK,
+                            () -> javaOnly(githubClient.getUserReposPage(authHeader, REPOS_PER_PAGE, pageNumber).getBody())),
+                            githubPageExecutor));
+                } catch (RejectedExecutionException e) {
+                    pages.add(CompletableFuture.failedFuture(e));
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            pages.forEach(page -> page.cancel(true));
+            throw new GithubException("Failed to fetch user repositories: " + e.getMessage(), e);
+        }
+        StreamingResponseBody body = out -> {
+            var written = writeRepos(out, pages, overPageCap);
+            if (!written.truncated()) {
+                javaRepos.put(cacheKey, written.repos());
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     @Override
     public ResponseEntity<Response> fetchRepoTree(String accessToken, String owner, String repo, String branch) {
         try {
-            var branchDetailsResponse = fetchBranchDetails(accessToken, owner, repo, branch);
-            var body = branchDetailsResponse.getBody();
+            var sha = resolveTreeSha(accessToken, owner, repo, branch);
+            var authHeader = withBearer(accessToken);
+            var repoTree = githubClient.getRepoTree(authHeader, owner, repo, sha);
 
-            if (branchDetailsResponse.getStatusCode().is2xxSuccessful() && body != null) {
-                    var branchData = (BranchResponse) body.data();
-                    if (branchData == null || branchData.commit() == null || branchData.commit().commit() == null || branchData.commit().commit().tree() == null) {
-                        throw new GithubException(ERROR_NULL_BRANCH_SHA);
-                    }
+            return ResponseEntity.ok(new Response("Repo tree fetched " + SUCCESS, repoTree, HttpStatus.OK.value()));
+        } catch (Exception e) {
+            throw new GithubException("Failed to fetch repo tree: " + e.getMessage(), e);
+        }
+    }
 
-                    var sha = branchData.commit().commit().tree().sha();
-                    var authHeader = withBearer(accessToken);
-                    var repoTree = githubClient.getRepoTree(authHeader, owner, repo, sha);
+    @Override
+    public ResponseEntity<StreamingResponseBody> streamRepoTree(String accessToken, String owner, String repo,
+                                                                String branch, String pathPrefix, String extension) {
+        feign.Response upstream;
+        try {
+            var sha = resolveTreeSha(accessToken, owner, repo, branch);
+            upstream = githubClient.streamRepoTree(withBearer(accessToken), owner, repo, sha);
+        } catch (Exception e) {
+            throw new GithubException("Failed to fetch repo tree: " + e.getMessage(), e);
+        }
+        if (upstream.status() >= 400 || upstream.body() == null) {
+            upstream.close();
+            throw new GithubException("Failed to fetch repo tree: GitHub responded with status " + upstream.status());
+        }
+        var filter = treeFilter(pathPrefix, extension);
+        StreamingResponseBody body = out -> {
+            try (upstream; var in = upstream.body().asInputStream()) {
+                copyTree(in, out, filter);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 
-                    return ResponseEntity.ok(new Response("Repo tree fetched " + SUCCESS, repoTree, HttpStatus.OK.value()));
+    @Override
+    public ResponseEntity<Response> fetchTreeLevel(String accessToken, String owner, String repo, String branch,
+                                                   String sha, String path, String cursor, int limit) {
+        try {
+            var pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+            var offset = decodeCursor(cursor);
+            String treeSha;
+            if (sha == null || sha.isBlank()) {
+                // Resolving the branch already proves the token can read the repository.
+                treeSha = resolveTreeSha(accessToken, owner, repo, branch);
             } else {
-                throw new GithubException(ERROR_BRANCH_NOT_FOUND);
+                authorizeRepo(withBearer(accessToken), owner, repo);
+                treeSha = sha;
             }
+            var cacheKey = owner.toLowerCase(Locale.ROOT) + "/" + repo.toLowerCase(Locale.ROOT) + "/" + treeSha;
+            var level = treeLevels.get(cacheKey).orElseGet(() -> {
+                var fetched = githubClient.getTreeLevel(withBearer(accessToken), owner, repo, treeSha);
+                treeLevels.put(cacheKey, fetched);
+                return fetched;
+            });
+
+            var entries = level.tree() == null ? List.<TreeItem>of() : level.tree();
+            var end = Math.min(entries.size(), offset + pageSize);
+            var parent = path == null || path.isBlank() ? "" : path.endsWith("/") ? path : path + "/";
+            var page = entries.subList(Math.min(offset, end), end).stream()
+                    .map(item -> new TreeItem(parent + item.path(), item.type(), item.sha()))
+                    .toList();
+            var nextCursor = end < entries.size() ? Integer.toString(end) : null;
+
+            return ResponseEntity.ok(new Response("Tree level fetched " + SUCCESS,
+                    new TreePageDTO(treeSha, page, entries.size(), nextCursor), HttpStatus.OK.value()));
+        } catch (Exception e) {
+            throw new GithubException("Failed to fetch tree level: " + e.getMessage(), e);
+        }
+    }
 
+    /**
+     * Lists every file of the branch from a local snapshot of its head commit, downloading the branch zipball once
+     * if there is none yet. Blobs listed here are then served by {@link #fetchFileBlob} from the snapshot as well,
+     * so reviewing a whole branch costs one archive download instead of one API call per file.
+     */
+    @Override
+    public ResponseEntity<Response> fetchRepoSnapshot(String accessToken, String owner, String repo, String branch) {
+        try {
+            var commitSha = resolveCommitSha(accessToken, owner, repo, branch);
+            // Resolving the branch with the caller's token is what lets it see an existing snapshot.
+            var snapshotKey = Digests.sha256(owner.toLowerCase(Locale.ROOT), repo.toLowerCase(Locale.ROOT), commitSha);
+            var snapshot = snapshotStore.get(owner, repo, commitSha).orElseGet(() -> snapshotDownloads.execute(
+                    snapshotKey, () -> snapshotStore.get(owner, repo, commitSha)
+                            .orElseGet(() -> downloadSnapshot(accessToken, owner, repo, commitSha))));
+            return ResponseEntity.ok(new Response("Repo snapshot fetched " + SUCCESS, snapshot.tree(),
+                    HttpStatus.OK.value()));
         } catch (Exception e) {
-            throw new GithubException("Failed to fetch repo tree: " + e.getMessage());
+            throw new GithubException("Failed to fetch repo snapshot: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Serves a blob from the cache or the snapshots of this repository, once the token is known to have access to it,
+     * and otherwise fetches it from GitHub.
+     */
     @Override
     public ResponseEntity<Response> fetchFileBlob(String accessToken, String owner, String repo, String sha) {
         try {
             var authHeader = withBearer(accessToken);
-            var fileBlob = githubClient.getFileBlob(authHeader, owner, repo, sha);
+            authorizeRepo(authHeader, owner, repo);
+            var fileBlob = blobCache.get(owner, repo, sha).or(() -> snapshotBlob(owner, repo, sha)).orElseGet(() -> {
+                var fetched = githubClient.getFileBlob(authHeader, owner, repo, sha);
+                blobCache.put(owner, repo, sha, fetched);
+                return fetched;
+            });
             return ResponseEntity.ok(new Response("File blob fetched " + SUCCESS, fileBlob, HttpStatus.OK.value()));
         } catch (Exception e) {
-            throw new GithubException("Failed to fetch file blob: " + e.getMessage());
+            throw new GithubException("Failed to fetch file blob: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String fetchCompareDiff(String accessToken, String owner, String repo, String base, String head) {
+        try {
+            return githubClient.getCompareDiff(withBearer(accessToken), owner, repo, base + "..." + head);
+        } catch (Exception e) {
+            throw new GithubException("Failed to fetch compare diff: " + e.getMessage(), e);
         }
     }
 
@@ -88,7 +320,7 @@ public class GithubServiceImpl implements GithubService {
             var branchDetails = githubClient.getBranchDetails(authHeader, owner, repo, branch);
             return ResponseEntity.ok(new Response("Branch details fetched " + SUCCESS, branchDetails, HttpStatus.OK.value()));
         } catch (Exception e) {
-            throw new GithubException("Failed to fetch branch details: " + e.getMessage());
+            throw new GithubException("Failed to fetch branch details: " + e.getMessage(), e);
         }
     }
 
@@ -99,7 +331,222 @@ public class GithubServiceImpl implements GithubService {
             var branchDetails = githubClient.getAllBranches(authHeader, owner, repo);
             return ResponseEntity.ok(new Response("All branches fetched :  " + SUCCESS, branchDetails, HttpStatus.OK.value()));
         } catch (Exception e) {
-            throw new GithubException("Failed to fetch branches : " + e.getMessage());
+            throw new GithubException("Failed to fetch branches : " + e.getMessage(), e);
+        }
+    }
+
+    private RepoSnapshotStore.Snapshot downloadSnapshot(String accessToken, String owner, String repo,
+                                                        String commitSha) {
+        var upstream = githubClient.downloadZipball(withBearer(accessToken), owner, repo, commitSha);
+        try (upstream) {
+            if (upstream.status() >= 400 || upstream.body() == null) {
+                throw new GithubException("GitHub responded with status " + upstream.status());
+            }
+            try (var in = upstream.body().asInputStream()) {
+                return snapshotStore.extract(owner, repo, commitSha, in);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Fails unless the token can read {@code owner/repo}. The repository lookup goes out as a conditional request, so
+     * a repeat check is answered with a 304 that does not count against the rate limit.
+     */
+    private void authorizeRepo(String authHeader, String owner, String repo) {
+        var key = Digests.sha256("repo-access", authHeader, owner.toLowerCase(Locale.ROOT),
+                repo.toLowerCase(Locale.ROOT));
+        if (repoAccess.get(key).isPresent()) {
+            return;
+        }
+        githubClient.getRepository(authHeader, owner, repo);
+        repoAccess.put(key, Boolean.TRUE);
+    }
+
+    private Optional<GitBlobResponse> snapshotBlob(String owner, String repo, String sha) {
+        return snapshotStore.readBlob(owner, repo, sha)
+                .map(content -> new GitBlobResponse(Base64.getEncoder().encodeToString(content), "base64"));
+    }
+
+    private String resolveCommitSha(String accessToken, String owner, String repo, String branch) {
+        var branchData = branchDetails(accessToken, owner, repo, branch);
+        if (branchData.commit() == null || !RepoSnapshotStore.isCommitSha(branchData.commit().sha())) {
+            throw new GithubException(ERROR_NULL_COMMIT_SHA);
+        }
+        return branchData.commit().sha();
+    }
+
+    private String resolveTreeSha(String accessToken, String owner, String repo, String branch) {
+        var branchData = branchDetails(accessToken, owner, repo, branch);
+        if (branchData.commit() == null || branchData.commit().commit() == null || branchData.commit().commit().tree() == null) {
+            throw new GithubException(ERROR_NULL_BRANCH_SHA);
+        }
+        return branchData.commit().commit().tree().sha();
+    }
+
+    private BranchResponse branchDetails(String accessToken, String owner, String repo, String branch) {
+        var branchDetailsResponse = fetchBranchDetails(accessToken, owner, repo, branch);
+        var body = branchDetailsResponse.getBody();
+        if (!branchDetailsResponse.getStatusCode().is2xxSuccessful() || body == null
+                || !(body.data() instanceof BranchResponse branchData)) {
+            throw new GithubException(ERROR_BRANCH_NOT_FOUND);
+        }
+        return branchData;
+    }
+
+    /**
+     * Writes the repositories of {@code pages}, in order, inside the usual {@link Response} envelope, flushing after
+     * each page. A page that failed ends the list and cancels the pages after it; the envelope then carries
+     * {@code truncated: true}, as it does when {@code truncated} is passed in. Returns everything written.
+     */
+    WrittenRepos writeRepos(OutputStream out, List<CompletableFuture<List<RepoDTO>>> pages, boolean truncated)
+            throws IOException {
+        var written = new ArrayList<RepoDTO>();
+        try (var generator = REPO_WRITER.createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("message", "User repositories fetched " + SUCCESS);
+            generator.writeArrayFieldStart("data");
+            for (var page : pages) {
+                List<RepoDTO> repos;
+                try {
+                    repos = page.join();
+                } catch (CompletionException | CancellationException e) {
+                    var cause = e.getCause() == null ? e : e.getCause();
+                    if (cause instanceof DownstreamBusyException) {
+                        log.warn("GitHub rate limit budget held back user repository pages, listing is incomplete: {}",
+                                cause.getMessage());
+                    } else {
+                        log.warn("Failed to fetch user repositories, listing is incomplete: {}", cause.getMessage());
+                    }
+                    pages.forEach(pending -> pending.cancel(true));
+                    truncated = true;
+                    break;
+                }
+                for (var repo : repos) {
+                    generator.writeObject(repo);
+                    written.add(repo);
+                }
+                generator.flush();
+            }
+            generator.writeEndArray();
+            generator.writeBooleanField("truncated", truncated);
+            generator.writeNumberField("statusCode", HttpStatus.OK.value());
+            generator.writeEndObject();
+        }
+        return new WrittenRepos(written, truncated);
+    }
+
+    record WrittenRepos(List<RepoDTO> repos, boolean truncated) {
+    }
+
+    private static List<RepoDTO> javaOnly(List<RepoDTO> repos) {
+        return repos == null ? List.of() : repos.stream()
+                .filter(repoDTO -> repoDTO.language() != null && repoDTO.language().equalsIgnoreCase(JAVA))
+                .toList();
+    }
+
+    private static int lastPage(HttpHeaders headers) {
+        var link = headers.getFirst(HttpHeaders.LINK);
+        if (link == null) {
+            return 1;
+        }
+        var matcher = LAST_PAGE.matcher(link);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : 1;
+    }
+
+    private static int decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            var offset = Integer.parseInt(cursor);
+            if (offset < 0) {
+                throw new GithubException(ERROR_INVALID_CURSOR);
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new GithubException(ERROR_INVALID_CURSOR);
+        }
+    }
+
+    private static Predicate<TreeItem> treeFilter(String pathPrefix, String extension) {
+        Predicate<TreeItem> filter = item -> true;
+        if (pathPrefix != null && !pathPrefix.isBlank()) {
+            filter = filter.and(item -> item.path() != null && item.path().startsWith(pathPrefix));
+        }
+        if (extension != null && !extension.isBlank()) {
+            var suffix = extension.startsWith(".") ? extension : "." + extension;
+            filter = filter.and(item -> item.path() != null && item.path().endsWith(suffix));
+        }
+        return filter;
+    }
+
+    /**
+     * Copies a GitHub tree document from {@code in} to {@code out} one entry at a time, wrapped in the usual
+     * {@link Response} envelope. Only entries accepted by {@code filter} are written, and only one entry is held in
+     * memory at any point, so heap use does not grow with the size of the tree.
+     */
+    void copyTree(InputStream in, OutputStream out, Predicate<TreeItem> filter) throws IOException {
+        try (var parser = JSON_FACTORY.createParser(in);
+             var generator = JSON_FACTORY.createGenerator(out)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a tree object");
+            }
+            generator.writeStartObject();
+            generator.writeStringField("message", "Repo tree fetched " + SUCCESS);
+            generator.writeObjectFieldStart("data");
+            var truncated = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                var field = parser.currentName();
+                var token = parser.nextToken();
+                switch (field) {
+                    case "sha" -> generator.writeStringField("sha", parser.getValueAsString());
+                    case "truncated" -> truncated = parser.getValueAsBoolean();
+                    case "tree" -> {
+                        if (token != JsonToken.START_ARRAY) {
+                            throw new JsonParseException(parser, "Expected tree entries");
+                        }
+                        generator.writeArrayFieldStart("tree");
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            var item = readTreeItem(parser);
+                            if (filter.test(item)) {
+                                generator.writeStartObject();
+                                generator.writeStringField("path", item.path());
+                                generator.writeStringField("type", item.type());
+                                generator.writeStringField("sha", item.sha());
+                                generator.writeEndObject();
+                            }
+                        }
+                        generator.writeEndArray();
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            if (truncated) {
+                log.warn("GitHub truncated the recursive tree; streamed entries are incomplete");
+            }
+            generator.writeBooleanField("truncated", truncated);
+            generator.writeEndObject();
+            generator.writeNumberField("statusCode", HttpStatus.OK.value());
+            generator.writeEndObject();
+        }
+    }
+
+    private static TreeItem readTreeItem(JsonParser parser) throws IOException {
+        String path = null;
+        String type = null;
+        String sha = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "path" -> path = parser.getValueAsString();
+                case "type" -> type = parser.getValueAsString();
+                case "sha" -> sha = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
         }
+        return new TreeItem(path, type, sha);
     }
 }
@@ -0,0 +1,159 @@
+package com.damian.coderover.service.impl;
+
+import com.damian.coderover.dto.FileReviewDTO;
+import com.damian.coderover.dto.GitBlobResponse;
+import com.damian.coderover.dto.GitTreeResponse;
+import com.damian.coderover.dto.RepoReviewSummaryDTO;
+import com.damian.coderover.exception.GithubException;
+import com.damian.coderover.response.Response;
+import com.damian.coderover.service.GithubService;
+import com.damian.coderover.service.RepoReviewService;
+import com.damian.coderover.service.ReviewService;
+import com.damian.coderover.util.GithubRateBudget;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+@Service
+@Log4j2
+@RequiredArgsConstructor
+public class RepoReviewServiceImpl implements RepoReviewService {
+
+    private static final String BLOB = "blob";
+    private static final String JAVA_EXTENSION = ".java";
+    private static final String BASE64 = "base64";
+    private static final String EVENT_FILE = "file";
+    private static final String EVENT_COMPLETE = "complete";
+    private static final String ERROR_EMPTY_TREE = "Repository tree is empty!";
+
+    private final GithubService githubService;
+    private final ReviewService reviewService;
+    @Qualifier("reviewExecutor")
+    private final ExecutorService reviewExecutor;
+
+    @Value("${review.batch.max-files:500}")
+    private int maxFiles;
+
+    @Value("${review.batch.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    // List files from a zipball snapshot of the branch, so that their blobs are read locally instead of fetched
+    // one API call at a time.
+    @Value("${review.batch.snapshot:false}")
+    private boolean useSnapshot;
+
+    @Override
+    public SseEmitter reviewRepository(String accessToken, String owner, String repo, String branch) {
+        var javaFiles = resolveJavaFiles(accessToken, owner, repo, branch);
+        log.info("Reviewing {} Java files from {}/{}@{}", javaFiles.files().size(), owner, repo, branch);
+        if (javaFiles.skipped() > 0) {
+            log.warn("Skipping {} Java files from {}/{}@{} over the {} file cap", javaFiles.skipped(), owner, repo,
+                    branch, maxFiles);
+        }
+
+        var emitter = new SseEmitter(timeoutMs);
+        var pipeline = reviewFiles(accessToken, owner, repo, javaFiles.files(), javaFiles.skipped(),
+                result -> send(emitter, EVENT_FILE, result));
+        emitter.onTimeout(() -> pipeline.cancel(true));
+        emitter.onError(e -> pipeline.cancel(true));
+
+        pipeline.whenComplete((summary, e) -> {
+            if (e != null) {
+                emitter.completeWithError(e);
+                return;
+            }
+            send(emitter, EVENT_COMPLETE, new Response("Repository review completed successfully", summary,
+                    HttpStatus.OK.value()));
+            emitter.complete();
+        });
+        return emitter;
+    }
+
+    CompletableFuture<RepoReviewSummaryDTO> reviewFiles(String accessToken, String owner, String repo,
+                                                        List<GitTreeResponse.TreeItem> files, int skipped,
+                                                        Consumer<FileReviewDTO> onResult) {
+        var reviewed = new AtomicInteger();
+        var failed = new AtomicInteger();
+        var sources = files.stream()
+                .map(item -> CompletableFuture.supplyAsync(() -> reviewFile(accessToken, owner, repo, item), reviewExecutor))
+                .toList();
+        var tasks = sources.stream()
+                .map(source -> source.thenAccept(result -> {
+                    (result.error() == null ? reviewed : failed).incrementAndGet();
+                    onResult.accept(result);
+                }))
+                .toArray(CompletableFuture[]::new);
+        var summary = CompletableFuture.allOf(tasks)
+                .thenApply(done -> new RepoReviewSummaryDTO(files.size(), reviewed.get(), failed.get(), skipped));
+        // Cancelling the summary (client gone) cancels files still waiting in the executor queue.
+        summary.whenComplete((result, e) -> {
+            if (summary.isCancelled()) {
+                sources.forEach(source -> source.cancel(false));
+            }
+        });
+        return summary;
+    }
+
+    JavaFiles resolveJavaFiles(String accessToken, String owner, String repo, String branch) {
+        var body = GithubRateBudget.callWith(GithubRateBudget.Priority.BULK, () -> useSnapshot
+                ? githubService.fetchRepoSnapshot(accessToken, owner, repo, branch)
+                : githubService.fetchRepoTree(accessToken, owner, repo, branch)).getBody();
+        if (body == null || !(body.data() instanceof GitTreeResponse tree) || tree.tree() == null) {
+            throw new GithubException(ERROR_EMPTY_TREE);
+        }
+        var javaFiles = tree.tree().stream()
+                .filter(item -> BLOB.equals(item.type()) && item.path() != null && item.path().endsWith(JAVA_EXTENSION))
+                .toList();
+        if (javaFiles.size() <= maxFiles) {
+            return new JavaFiles(javaFiles, 0);
+        }
+        return new JavaFiles(javaFiles.subList(0, maxFiles), javaFiles.size() - maxFiles);
+    }
+
+    record JavaFiles(List<GitTreeResponse.TreeItem> files, int skipped) {
+    }
+
+    private FileReviewDTO reviewFile(String accessToken, String owner, String repo, GitTreeResponse.TreeItem item) {
+        try {
+            var blobBody = GithubRateBudget.callWith(GithubRateBudget.Priority.BULK,
+                    () -> githubService.fetchFileBlob(accessToken, owner, repo, item.sha())).getBody();
+            var code = decode(blobBody == null ? null : (GitBlobResponse) blobBody.data());
+            var reviewBody = reviewService.requestCodeReview(code, false).getBody();
+            return new FileReviewDTO(item.path(), item.sha(), reviewBody == null ? null : reviewBody.data(), null);
+        } catch (Exception e) {
+            log.warn("Review failed for {}: {}", item.path(), e.getMessage());
+            return new FileReviewDTO(item.path(), item.sha(), null, e.getMessage());
+        }
+    }
+
+    private String decode(GitBlobResponse blob) {
+        if (blob == null || blob.content() == null) {
+            return "";
+        }
+        if (BASE64.equalsIgnoreCase(blob.encoding())) {
+            return new String(Base64.getMimeDecoder().decode(blob.content()), StandardCharsets.UTF_8);
+        }
+        return blob.content();
+    }
+
+    private void send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping {} event, client disconnected: {}", event, e.getMessage());
+        }
+    }
+}
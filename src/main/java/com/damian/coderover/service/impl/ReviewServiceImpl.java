@@ -1,69 +1,679 @@
 package com.damian.coderover.service.impl;
 
+import com.damian.coderover.dto.BatchBuildReviewDTO;
+import com.damian.coderover.dto.BuildFileDTO;
+import com.damian.coderover.dto.CodeT5_V1_DTO;
+import com.damian.coderover.dto.FileVerdictDTO;
+import com.damian.coderover.dto.ReviewResponseDTO;
 import com.damian.coderover.exception.ReviewException;
 import com.damian.coderover.feign.CodeT5ReviewClient;
 import com.damian.coderover.feign.ReviewClient;
 import com.damian.coderover.response.Response;
 import com.damian.coderover.service.ReviewService;
+import com.damian.coderover.util.CodeChunker;
+import com.damian.coderover.util.DiffHunks;
+import com.damian.coderover.util.ReviewPacker;
+import com.damian.coderover.util.MicroBatcher;
+import com.damian.coderover.util.ReviewCache;
+import com.damian.coderover.util.SingleFlight;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 @Service
 @Log4j2
 @RequiredArgsConstructor
 public class ReviewServiceImpl implements ReviewService {
+    private static final String DATA_PREFIX = "data:";
+    private static final String TYPE_DELTA = "response.output_text.delta";
+    private static final String TYPE_COMPLETED = "response.completed";
+    private static final String TYPE_FAILED = "response.failed";
+    private static final String TYPE_ERROR = "error";
+    private static final String EVENT_DELTA = "delta";
+    private static final String EVENT_COMPLETE = "complete";
+    private static final String EVENT_ERROR = "error";
+    private static final String CODE_T5_V1_MODEL = "codeT5-v1";
+    private static final String VERDICT_BLOCK = "true";
+    private static final String VERDICT_ALLOW = "false";
+    private static final String OUTPUT_TYPE_MESSAGE = "message";
+    private static final String CONTENT_TYPE_OUTPUT_TEXT = "output_text";
+    private static final String METRIC_CALLS = "review.backend.calls";
+    private static final String METRIC_COALESCED = "review.backend.coalesced";
+    private static final String METRIC_CODE_T5_BATCHES = "review.codet5.batches";
+    private static final String METRIC_CODE_T5_BATCHED = "review.codet5.batched";
+    private static final String TAG_CLIENT = "client";
+    private static final String ERROR_STREAMS_BUSY = "Too many streaming reviews in progress, please retry shortly.";
+
     private final CodeT5ReviewClient codeT5ReviewClient;
     private final ReviewClient reviewClient;
+    private final ObjectMapper objectMapper;
+    private final ReviewCache reviewCache;
+    private final MeterRegistry meterRegistry;
+    @Qualifier("reviewStreamExecutor")
+    private final ExecutorService reviewStreamExecutor;
+    @Qualifier("reviewChunkExecutor")
+    private final ExecutorService reviewChunkExecutor;
+
+    // Identical reviews already in flight, keyed like the review cache; a burst of the same code costs one call.
+    private final SingleFlight<String, ReviewResponseDTO> reviewCalls = new SingleFlight<>();
+    private final SingleFlight<String, CodeT5_V1_DTO> codeT5Calls = new SingleFlight<>();
+    private MicroBatcher<String, String> codeT5Batcher;
+
     @Value("${review.client.token}")
     private String reviewAuthToken;
 
+    @Value("${review.client.model:gpt-5}")
+    private String model;
+
     @Value("${review.client.prompt}")
     private String reviewPrompt;
 
     @Value("${review.client.build-prompt}")
     private String buildPrompt;
 
+    // Explains the hunk format; the build prompt that follows it decides the verdict.
+    @Value("${review.client.diff-prompt:The code below is one hunk of a unified diff. Lines starting with + were added, lines starting with - were removed, the rest is context. Judge only the change.}")
+    private String diffPrompt;
+
+    // The diff endpoint is open to CI without a login, so the work one request can cause is capped.
+    @Value("${review.diff.max-chars:1000000}")
+    private int maxDiffChars;
+
+    @Value("${review.diff.max-hunks:100}")
+    private int maxDiffHunks;
+
+    @Value("${review.stream.timeout-ms:600000}")
+    private long streamTimeoutMs;
+
+    @Value("${codeT5.batch.enabled:false}")
+    private boolean codeT5BatchEnabled;
+
+    @Value("${codeT5.batch.max-size:16}")
+    private int codeT5BatchMaxSize;
+
+    @Value("${codeT5.batch.max-wait-ms:10}")
+    private long codeT5BatchMaxWaitMs;
+
+    @Value("${codeT5.batch.max-concurrent:2}")
+    private int codeT5BatchMaxConcurrent;
+
+    @Value("${codeT5.batch.timeout-ms:30000}")
+    private long codeT5BatchTimeoutMs;
+
+    @Value("${review.chunk.max-chars:24000}")
+    private int maxChunkChars;
+
+    @Value("${review.client.batch-build-prompt:Decide for every file below whether it should block the build. Each file starts with a '### FILE: <path>' heading. Answer with the same heading for every file, followed by your findings and a last line that is exactly 'VERDICT: BLOCK' or 'VERDICT: ALLOW'.}")
+    private String batchBuildPrompt;
+
+    // Files are packed into one request up to this many (estimated) prompt tokens.
+    @Value("${review.status-batch.max-tokens:8000}")
+    private int batchMaxTokens;
+
+    @Value("${review.status-batch.max-files:200}")
+    private int batchMaxFiles;
+
+    @Value("${review.status-batch.max-chars:2000000}")
+    private long batchMaxChars;
+
+    @PostConstruct
+    public void init() {
+        registerCallMetrics("review-client", reviewCalls);
+        registerCallMetrics(CODE_T5_V1_MODEL, codeT5Calls);
+        if (codeT5BatchEnabled) {
+            codeT5Batcher = new MicroBatcher<>("codet5-batch", codeT5BatchMaxSize, Duration.ofMillis(codeT5BatchMaxWaitMs),
+                    codeT5BatchMaxConcurrent, this::predictBatch);
+            FunctionCounter.builder(METRIC_CODE_T5_BATCHES, codeT5Batcher, MicroBatcher::batches)
+                    .description("Batch calls made to the CodeT5 model server")
+                    .register(meterRegistry);
+            FunctionCounter.builder(METRIC_CODE_T5_BATCHED, codeT5Batcher, MicroBatcher::items)
+                    .description("Snippets sent to the CodeT5 model server in batch calls")
+                    .register(meterRegistry);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (codeT5Batcher != null) {
+            codeT5Batcher.close();
+        }
+    }
+
     @Override
     public ResponseEntity<Response> requestCodeReview(String code, boolean isBuildReview) {
         try {
-            var requestBody = Map.of(
-                    "model", "gpt-5",
-                    "input", List.of(
-                            Map.of("role", "user", "content", (isBuildReview ? buildPrompt
-                                    : reviewPrompt) + "\n" + code)
-                    )
-            );
-            var authHeader = "Bearer " + reviewAuthToken;
-            var response = reviewClient.getCodeReview(authHeader, requestBody);
-            var extractedResponse = response.getBody();
-            log.info("Review response : {}", extractedResponse);
+            var prompt = promptFor(isBuildReview);
+            var cacheKey = ReviewCache.key(model, prompt, code);
+            var cached = reviewCache.get(cacheKey, ReviewResponseDTO.class);
+            if (cached.isPresent()) {
+                log.debug("Review cache hit : {}", cacheKey);
+                return ResponseEntity.ok(new Response("Code Review completed successfully",
+                        cached.get(), HttpStatus.OK.value()));
+            }
+            var extractedResponse = reviewCalls.execute(cacheKey, () -> {
+                var chunks = CodeChunker.split(code, maxChunkChars);
+                ReviewResponseDTO review;
+                if (chunks.size() == 1) {
+                    review = callReviewClient(prompt, code);
+                } else if (isBuildReview) {
+                    review = mergeVerdicts(reviewEach(prompt, chunks));
+                } else {
+                    review = mergeReviews(reviewEach(prompt, chunks));
+                }
+                log.debug("Review response : {}", review);
+                reviewCache.put(cacheKey, model, review);
+                return review;
+            });
             return ResponseEntity.ok(new Response("Code Review completed successfully",
                     extractedResponse, HttpStatus.OK.value()));
         } catch (Exception e) {
-            throw new ReviewException(("An error occurred while reviewing code : " + e.getMessage()));
+            var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            throw new ReviewException("An error occurred while reviewing code : " + cause.getMessage(), cause);
         }
     }
 
+    /**
+     * Decides whether a change blocks the build by reviewing only the hunks of its unified diff, deletions included,
+     * each with the build prompt. The answer starts with {@code true} when any hunk blocks, as for a whole-file build
+     * review. Hunks go through the same per-chunk cache as large files, keyed without line numbers, so on a re-run
+     * only hunks that actually changed reach the model. Diffs over {@code review.diff.max-chars} characters or
+     * {@code review.diff.max-hunks} hunks are refused.
+     */
+    @Override
+    public ResponseEntity<Response> requestDiffReview(String diff) {
+        try {
+            if (diff != null && diff.length() > maxDiffChars) {
+                return tooLarge("Diff exceeds " + maxDiffChars + " characters");
+            }
+            var hunks = DiffHunks.parse(diff).stream()
+                    .flatMap(hunk -> CodeChunker.split(hunk.text(), maxChunkChars).stream())
+                    .toList();
+            if (hunks.isEmpty()) {
+                return ResponseEntity.ok(new Response("No changes to review", null, HttpStatus.OK.value()));
+            }
+            if (hunks.size() > maxDiffHunks) {
+                return tooLarge("Diff has " + hunks.size() + " hunks, more than " + maxDiffHunks);
+            }
+            return ResponseEntity.ok(new Response("Diff review completed successfully",
+                    mergeVerdicts(reviewEach(diffPrompt + "\n" + buildPrompt, hunks)), HttpStatus.OK.value()));
+        } catch (Exception e) {
+            var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            throw new ReviewException("An error occurred while reviewing diff : " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Reviews many files for one build. Files with a cached verdict are answered from the cache; the rest are split
+     * into chunks where needed and packed into shared requests of up to {@code review.status-batch.max-tokens}
+     * (about four characters per token), which run concurrently on the chunk executor. A file the model leaves out
+     * of a packed answer is retried on its own once. The build is blocked when any file is, and also when any file
+     * could not be reviewed, so that a failing model never lets a build through. Batches of more than
+     * {@code review.status-batch.max-files} files or {@code review.status-batch.max-chars} characters are refused.
+     */
+    @Override
+    public ResponseEntity<Response> requestBatchBuildReview(List<BuildFileDTO> files) {
+        if (files.size() > batchMaxFiles) {
+            return tooLarge("Batch has " + files.size() + " files, more than " + batchMaxFiles);
+        }
+        var totalChars = files.stream().mapToLong(file -> file.content() == null ? 0 : file.content().length()).sum();
+        if (totalChars > batchMaxChars) {
+            return tooLarge("Batch exceeds " + batchMaxChars + " characters");
+        }
+        var verdicts = new FileVerdictDTO[files.size()];
+        var paths = new String[files.size()];
+        var cacheKeys = new String[files.size()];
+        var labelsByFile = new HashMap<Integer, List<String>>();
+        var sections = new ArrayList<ReviewPacker.Section>();
+        var usedLabels = new HashSet<String>();
+        for (int i = 0; i < files.size(); i++) {
+            var file = files.get(i);
+            var path = file.path() == null || file.path().isBlank() ? "file-" + (i + 1) : file.path();
+            paths[i] = path;
+            var content = file.content() == null ? "" : file.content();
+            cacheKeys[i] = ReviewCache.key(model, batchBuildPrompt, path, content);
+            var cached = reviewCache.get(cacheKeys[i], FileVerdictDTO.class);
+            if (cached.isPresent()) {
+                verdicts[i] = cached.get();
+                continue;
+            }
+            var parts = CodeChunker.split(content, maxChunkChars);
+            var labels = new ArrayList<String>();
+            for (int part = 0; part < parts.size(); part++) {
+                var label = parts.size() == 1 ? path : path + " (part " + (part + 1) + "/" + parts.size() + ")";
+                while (!usedLabels.add(label)) {
+                    label = label + "'";
+                }
+                labels.add(label);
+                sections.add(new ReviewPacker.Section(label, parts.get(part)));
+            }
+            labelsByFile.put(i, labels);
+        }
+
+        var results = reviewPacks(ReviewPacker.pack(sections, batchMaxTokens * 4));
+        var missing = sections.stream().filter(section -> !results.containsKey(section.label()))
+                .map(List::of).toList();
+        results.putAll(reviewPacks(missing));
+
+        labelsByFile.forEach((i, labels) -> {
+            var parts = labels.stream().map(results::get).toList();
+            var error = parts.stream().map(PackResult::error).filter(Objects::nonNull).findFirst().orElse(null);
+            var blocked = parts.stream().anyMatch(PackResult::blocked);
+            var review = parts.stream().map(PackResult::review).filter(Objects::nonNull)
+                    .collect(Collectors.joining("\n\n"));
+            verdicts[i] = new FileVerdictDTO(paths[i], blocked, review.isEmpty() ? null : review, error);
+            if (error == null) {
+                reviewCache.put(cacheKeys[i], model, verdicts[i]);
+            }
+        });
+
+        var all = List.of(verdicts);
+        var blockedFiles = (int) all.stream().filter(FileVerdictDTO::blocked).count();
+        var failed = (int) all.stream().filter(verdict -> verdict.error() != null).count();
+        return ResponseEntity.ok(new Response("Batch build review completed successfully",
+                new BatchBuildReviewDTO(blockedFiles > 0 || failed > 0, all.size(), blockedFiles, failed, all),
+                HttpStatus.OK.value()));
+    }
+
+    /**
+     * Sends each pack as one request, concurrently, and returns the outcome of every section that got a verdict,
+     * or that failed, keyed by label. Sections the model did not answer are absent.
+     */
+    private Map<String, PackResult> reviewPacks(List<List<ReviewPacker.Section>> packs) {
+        var futures = packs.stream()
+                .map(pack -> CompletableFuture.supplyAsync(() -> reviewPack(pack), reviewChunkExecutor)
+                        .exceptionally(e -> {
+                            var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                            log.warn("Batch build review of {} files failed: {}", pack.size(), cause.getMessage());
+                            var failed = new HashMap<String, PackResult>();
+                            pack.forEach(section -> failed.put(section.label(),
+                                    new PackResult(false, null, "An error occurred while reviewing code : " + cause.getMessage())));
+                            return failed;
+                        }))
+                .toList();
+        var results = new HashMap<String, PackResult>();
+        futures.forEach(future -> results.putAll(future.join()));
+        return results;
+    }
+
+    private Map<String, PackResult> reviewPack(List<ReviewPacker.Section> pack) {
+        var review = callReviewClient(batchBuildPrompt, ReviewPacker.render(pack));
+        var answered = ReviewPacker.parse(outputText(review));
+        var results = new HashMap<String, PackResult>();
+        for (var section : pack) {
+            var verdict = answered.get(section.label());
+            if (verdict != null) {
+                results.put(section.label(), new PackResult(verdict.blocked(), verdict.review(), null));
+            } else if (pack.size() == 1) {
+                results.put(section.label(), new PackResult(false, outputText(review), "No verdict returned for this file"));
+            }
+        }
+        return results;
+    }
+
+    private record PackResult(boolean blocked, String review, String error) {
+    }
+
+    private static String outputText(ReviewResponseDTO review) {
+        if (review == null || review.getOutputs() == null) {
+            return "";
+        }
+        return review.getOutputs().stream()
+                .filter(output -> OUTPUT_TYPE_MESSAGE.equals(output.getType()) && output.getContents() != null)
+                .flatMap(output -> output.getContents().stream())
+                .map(ReviewResponseDTO.Content::getText)
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining("\n"));
+    }
+
+    @Override
+    public SseEmitter streamCodeReview(String code, boolean isBuildReview) {
+        var emitter = new SseEmitter(streamTimeoutMs);
+        var prompt = promptFor(isBuildReview);
+        var cacheKey = ReviewCache.key(model, prompt, code);
+        var cached = reviewCache.get(cacheKey, ReviewResponseDTO.class);
+        if (cached.isPresent()) {
+            sendQuietly(emitter, EVENT_COMPLETE, new Response("Code Review completed successfully",
+                    cached.get(), HttpStatus.OK.value()));
+            emitter.complete();
+            return emitter;
+        }
+        try {
+            reviewStreamExecutor.execute(streamTask(emitter, buildRequestBody(prompt, code, true), cacheKey));
+        } catch (RejectedExecutionException e) {
+            throw new ReviewException(ERROR_STREAMS_BUSY);
+        }
+        return emitter;
+    }
+
+    /**
+     * Opens the upstream stream and relays it to {@code emitter}. When the client goes away, or the emitter times
+     * out, the upstream response is closed so that the relay stops reading and frees its stream slot instead of
+     * consuming the rest of the generation.
+     */
+    Runnable streamTask(SseEmitter emitter, Map<String, Object> requestBody, String cacheKey) {
+        var upstream = new AtomicReference<feign.Response>();
+        var finished = new AtomicBoolean();
+        Runnable closeUpstream = () -> {
+            finished.set(true);
+            var open = upstream.getAndSet(null);
+            if (open != null) {
+                open.close();
+            }
+        };
+        emitter.onTimeout(closeUpstream);
+        emitter.onError(e -> closeUpstream.run());
+        emitter.onCompletion(closeUpstream);
+        return () -> {
+            try (var response = reviewClient.streamCodeReview("Bearer " + reviewAuthToken, requestBody)) {
+                upstream.set(response);
+                if (finished.get()) {
+                    return;
+                }
+                relay(response, emitter, cacheKey);
+            } catch (Exception e) {
+                if (finished.get()) {
+                    log.debug("Streaming review stopped, client disconnected: {}", e.getMessage());
+                    return;
+                }
+                log.warn("Streaming review failed: {}", e.getMessage());
+                sendQuietly(emitter, EVENT_ERROR, new Response("An error occurred while reviewing code : "
+                        + e.getMessage(), null, HttpStatus.INTERNAL_SERVER_ERROR.value()));
+                emitter.complete();
+            }
+        };
+    }
+
     @Override
     public ResponseEntity<Response> requestCodeReviewFromCodeT5V1(String code) {
         var requestBody = Map.of("code", code);
         try {
-            var response = codeT5ReviewClient.getV1Review(requestBody);
-            var extractedResponse = response.getBody();
-            log.info("CodeT5 v1 Review response : {}", extractedResponse);
+            var cacheKey = ReviewCache.key(CODE_T5_V1_MODEL, code);
+            var cached = reviewCache.get(cacheKey, CodeT5_V1_DTO.class);
+            if (cached.isPresent()) {
+                log.debug("CodeT5 v1 review cache hit : {}", cacheKey);
+                return ResponseEntity.ok(new Response("Code Review completed successfully!",
+                        cached.get(), HttpStatus.OK.value()));
+            }
+            var extractedResponse = codeT5Calls.execute(cacheKey, () -> {
+                var review = codeT5Batcher != null
+                        ? predictBatched(code)
+                        : codeT5ReviewClient.getV1Review(requestBody).getBody();
+                log.debug("CodeT5 v1 Review response : {}", review);
+                reviewCache.put(cacheKey, CODE_T5_V1_MODEL, review);
+                return review;
+            });
 
             return ResponseEntity.ok(new Response("Code Review completed successfully!",
                     extractedResponse, HttpStatus.OK.value()));
         } catch (Exception e) {
-            throw new ReviewException(("An error occurred while reviewing code from CodeT5 : " + e.getMessage()));
+            var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            throw new ReviewException("An error occurred while reviewing code from CodeT5 : " + cause.getMessage(), cause);
+        }
+    }
+
+    private CodeT5_V1_DTO predictBatched(String code) {
+        var prediction = new CodeT5_V1_DTO();
+        // Bounded, so that a wedged batch call cannot hold request threads forever.
+        prediction.setPrediction(codeT5Batcher.submit(code).orTimeout(codeT5BatchTimeoutMs, TimeUnit.MILLISECONDS)
+                .join());
+        return prediction;
+    }
+
+    private List<String> predictBatch(List<String> codes) {
+        var response = codeT5ReviewClient.getV1BatchReview(Map.of("codes", codes)).getBody();
+        return response == null ? null : response.getPredictions();
+    }
+
+    /**
+     * Reviews each chunk of a large file (or each diff hunk) concurrently on the chunk executor, returning the
+     * reviews in chunk order. Chunks are cached individually, so after an edit only the chunks that changed go back
+     * to the model.
+     */
+    private List<ReviewResponseDTO> reviewEach(String prompt, List<String> chunks) {
+        log.debug("Reviewing {} chunks of a {} char file", chunks.size(), chunks.stream().mapToInt(String::length).sum());
+        var futures = chunks.stream()
+                .map(chunk -> CompletableFuture.supplyAsync(() -> {
+                    var chunkKey = ReviewCache.key(model, prompt, chunk);
+                    return reviewCache.get(chunkKey, ReviewResponseDTO.class).orElseGet(() ->
+                            reviewCalls.execute(chunkKey, () -> {
+                                var review = callReviewClient(prompt, chunk);
+                                reviewCache.put(chunkKey, model, review);
+                                return review;
+                            }));
+                }, reviewChunkExecutor))
+                .toList();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private static ResponseEntity<Response> tooLarge(String message) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(new Response(message, null, HttpStatus.PAYLOAD_TOO_LARGE.value()));
+    }
+
+    private ReviewResponseDTO callReviewClient(String prompt, String code) {
+        var requestBody = buildRequestBody(prompt, code, false);
+        var authHeader = "Bearer " + reviewAuthToken;
+        return reviewClient.getCodeReview(authHeader, requestBody).getBody();
+    }
+
+    /**
+     * Merges per-chunk build reviews, each answering {@code true} (block) or {@code false} on its first line. The
+     * merged review starts with {@code true} when any chunk does, since CI blocks the build on that line alone,
+     * followed by the merged findings of all chunks.
+     */
+    static ReviewResponseDTO mergeVerdicts(List<ReviewResponseDTO> reviews) {
+        var blocked = false;
+        var findings = new ArrayList<ReviewResponseDTO>();
+        for (var review : reviews) {
+            var lines = outputText(review).strip().split("\n", 2);
+            blocked |= VERDICT_BLOCK.equalsIgnoreCase(lines[0].strip());
+            findings.add(message(review, lines.length > 1 ? lines[1] : ""));
+        }
+        var merged = outputText(mergeReviews(findings));
+        return message(reviews.stream().filter(Objects::nonNull).findFirst().orElse(null),
+                (blocked ? VERDICT_BLOCK : VERDICT_ALLOW) + (merged.isEmpty() ? "" : "\n" + merged));
+    }
+
+    /**
+     * Merges per-chunk reviews into one message. Review text is grouped by its section headings (markdown
+     * {@code #} headings, or a line that is bold text only) in order of first appearance. Within a section, a
+     * finding (a list item or paragraph, with any code block it contains) that several chunks repeat word for word
+     * is kept once; everything else, including blank lines between paragraphs and code blocks, is kept as written.
+     */
+    static ReviewResponseDTO mergeReviews(List<ReviewResponseDTO> reviews) {
+        var sections = new LinkedHashMap<String, List<Finding>>();
+        var headings = new HashMap<String, String>();
+        for (var review : reviews) {
+            var section = "";
+            Finding current = null;
+            var gap = false;
+            var inFence = false;
+            for (var line : outputText(review).split("\n")) {
+                var trimmed = line.strip();
+                var fenceMarker = trimmed.startsWith("```");
+                if (!inFence && trimmed.isEmpty()) {
+                    gap = current != null;
+                    current = null;
+                    continue;
+                }
+                if (!inFence && isHeading(trimmed)) {
+                    section = normalize(trimmed);
+                    headings.putIfAbsent(section, trimmed);
+                    sections.computeIfAbsent(section, key -> new ArrayList<>());
+                    current = null;
+                    gap = false;
+                    continue;
+                }
+                if (current == null || (!inFence && isListItem(trimmed))) {
+                    current = new Finding(gap, new StringBuilder(line.stripTrailing()));
+                    sections.computeIfAbsent(section, key -> new ArrayList<>()).add(current);
+                    gap = false;
+                } else {
+                    current.text().append('\n').append(line.stripTrailing());
+                }
+                if (fenceMarker) {
+                    inFence = !inFence;
+                }
+            }
+        }
+
+        var text = new StringBuilder();
+        sections.forEach((section, findings) -> {
+            if (!section.isEmpty()) {
+                text.append(text.isEmpty() ? "" : "\n").append(headings.get(section)).append('\n');
+            }
+            var seen = new HashSet<String>();
+            var first = true;
+            for (var finding : findings) {
+                if (!seen.add(normalize(finding.text().toString()))) {
+                    continue;
+                }
+                text.append(finding.afterGap() && !first ? "\n" : "").append(finding.text()).append('\n');
+                first = false;
+            }
+        });
+
+        return message(reviews.stream().filter(Objects::nonNull).findFirst().orElse(null), text.toString().strip());
+    }
+
+    private record Finding(boolean afterGap, StringBuilder text) {
+    }
+
+    private static ReviewResponseDTO message(ReviewResponseDTO template, String text) {
+        var content = new ReviewResponseDTO.Content();
+        content.setType(CONTENT_TYPE_OUTPUT_TEXT);
+        content.setText(text);
+        var output = new ReviewResponseDTO.Output();
+        output.setType(OUTPUT_TYPE_MESSAGE);
+        output.setContents(List.of(content));
+        var merged = new ReviewResponseDTO();
+        if (template != null) {
+            merged.setId(template.getId());
+            merged.setModel(template.getModel());
+            merged.setObject(template.getObject());
+        }
+        merged.setOutputs(List.of(output));
+        return merged;
+    }
+
+    private static boolean isHeading(String line) {
+        return line.startsWith("#") || (line.length() > 4 && line.startsWith("**") && line.endsWith("**")
+                && line.indexOf("**", 2) == line.length() - 2);
+    }
+
+    private static boolean isListItem(String line) {
+        return line.startsWith("- ") || line.startsWith("* ") || line.matches("\\d+[.)]\\s.*");
+    }
+
+    private static String normalize(String line) {
+        return line.replaceFirst("^[-*#\\s]+", "").strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Reads the upstream server-sent events and forwards text deltas as JSON {@code delta} events
+     * ({@code {"text": "..."}}, so that line breaks survive SSE framing), followed by a single {@code complete} event
+     * carrying the final {@link ReviewResponseDTO}, which is also cached.
+     */
+    void relay(feign.Response upstream, SseEmitter emitter, String cacheKey) throws IOException {
+        if (upstream.status() >= 400 || upstream.body() == null) {
+            throw new ReviewException("Review service responded with status " + upstream.status());
+        }
+        try (var reader = new BufferedReader(new InputStreamReader(upstream.body().asInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith(DATA_PREFIX)) {
+                    continue;
+                }
+                var event = objectMapper.readTree(line.substring(DATA_PREFIX.length()).trim());
+                switch (event.path("type").asText()) {
+                    case TYPE_DELTA -> emitter.send(SseEmitter.event().name(EVENT_DELTA)
+                            .data(Map.of("text", event.path("delta").asText()), MediaType.APPLICATION_JSON));
+                    case TYPE_COMPLETED -> {
+                        var review = objectMapper.treeToValue(event.path("response"), ReviewResponseDTO.class);
+                        log.debug("Streamed review response : {}", review);
+                        reviewCache.put(cacheKey, model, review);
+                        emitter.send(SseEmitter.event().name(EVENT_COMPLETE).data(new Response(
+                                "Code Review completed successfully", review, HttpStatus.OK.value())));
+                        emitter.complete();
+                        return;
+                    }
+                    case TYPE_FAILED, TYPE_ERROR -> throw new ReviewException(event.toString());
+                    default -> {
+                        // Lifecycle events (created, in_progress, content_part.*) carry nothing to relay.
+                    }
+                }
+            }
+        }
+        throw new ReviewException("Review stream ended before completion");
+    }
+
+    private void registerCallMetrics(String client, SingleFlight<String, ?> calls) {
+        FunctionCounter.builder(METRIC_CALLS, calls, SingleFlight::calls)
+                .description("Review backend calls made")
+                .tag(TAG_CLIENT, client)
+                .register(meterRegistry);
+        FunctionCounter.builder(METRIC_COALESCED, calls, SingleFlight::coalesced)
+                .description("Review requests served by an identical call already in flight")
+                .tag(TAG_CLIENT, client)
+                .register(meterRegistry);
+    }
+
+    private String promptFor(boolean isBuildReview) {
+        return isBuildReview ? buildPrompt : reviewPrompt;
+    }
+
+    private Map<String, Object> buildRequestBody(String prompt, String code, boolean stream) {
+        var requestBody = new HashMap<String, Object>(Map.of(
+                "model", model,
+                "input", List.of(
+                        Map.of("role", "user", "content", prompt + "\n" + code)
+                )
+        ));
+        if (stream) {
+            requestBody.put("stream", true);
+        }
+        return requestBody;
+    }
+
+    private void sendQuietly(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping {} event, client disconnected: {}", event, e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
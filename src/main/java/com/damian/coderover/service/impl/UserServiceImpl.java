@@ -5,7 +5,11 @@ import com.damian.coderover.entity.User;
 import com.damian.coderover.repository.UserRepo;
 import com.damian.coderover.response.Response;
 import com.damian.coderover.service.UserService;
+import com.damian.coderover.util.BoundedCache;
 import com.damian.coderover.util.JwtUtils;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -13,10 +17,26 @@ import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
+/**
+ * Serves user profiles from a bounded cache of {@link UserDTO}s keyed by email, expiring after
+ * {@code user.profile-cache.ttl}. Logins are persisted with a single upsert keyed by the unique email index. When the
+ * profile is already cached, a changed one is instead queued and written behind in batches, one transaction per
+ * batch, by {@link #flushProfileUpdates()}; until then reads are answered from the queue, so a user never sees an
+ * older profile than the one they logged in with. Every write invalidates the cached entry.
+ */
 @Service
 @RequiredArgsConstructor
 @Log4j2
@@ -25,18 +45,132 @@ public class UserServiceImpl implements UserService {
     private final JwtUtils jwtUtils;
     private final HttpServletRequest request;
     private final UserRepo userRepo;
+    private final TransactionOperations transactionOperations;
     @Value("${user.default-profile-picture-url}")
     private String DEFAULT_PROFILE_PIC;
 
+    @Value("${user.profile-cache.max-entries:10000}")
+    private long profileCacheMaxEntries;
+
+    @Value("${user.profile-cache.ttl:PT60S}")
+    private Duration profileCacheTtl;
+
+    @Value("${user.write-behind.batch-size:100}")
+    private int writeBehindBatchSize;
+
+    @Value("${user.write-behind.max-attempts:5}")
+    private int writeBehindMaxAttempts;
+
+    private BoundedCache<String, UserDTO> profiles;
+    private final ConcurrentHashMap<String, PendingProfile> pendingProfiles = new ConcurrentHashMap<>();
+    // Bumped by every profile write, so that a read racing a write never caches what it read before the write.
+    private final AtomicLong profileWrites = new AtomicLong();
+
     private static final String COOKIE_NAME = "access_token";
     private static final String CLAIM_EMAIL = "email";
+    private static final String CLAIM_NAME = "name";
+    private static final String CLAIM_PICTURE = "picture";
+    private static final String FIELDS_BASIC = "basic";
     private static final String SUCCESS_MSG = "User info successfully fetched!";
     private static final String PLEASE_RE_AUTHENTICATE = "Invalid token,Please Re-Authenticate!";
 
+    private static final List<Function<UserDTO, Object>> PROFILE_FIELDS = List.of(
+            UserDTO::getName, UserDTO::getLogin, UserDTO::getProfilePicURL, UserDTO::getCompany, UserDTO::getBlog,
+            UserDTO::getLocation, UserDTO::getBio, UserDTO::getPublicRepos, UserDTO::getPrivateRepos,
+            UserDTO::getPublicGists, UserDTO::getFollowers, UserDTO::getFollowing, UserDTO::getSiteAdmin,
+            UserDTO::getTwoFactorAuth, UserDTO::getAccountType, UserDTO::getPlanName, UserDTO::getPlanSpace);
+
+    @PostConstruct
+    public void init() {
+        this.profiles = new BoundedCache<>(profileCacheMaxEntries, profile -> 1L, profileCacheTtl);
+    }
+
+    /**
+     * A profile update waiting to be written, with the number of times writing it has failed.
+     */
+    private record PendingProfile(User user, int failedWrites) {
+    }
+
+    /**
+     * Upserts the user in one statement unless their profile is already known from the cache or the write-behind
+     * queue, and returns {@code user}. A known profile that changed is queued under its stored id; an unchanged one
+     * causes no write at all. The upsert keeps the id of an existing row, so only a known profile's returned user is
+     * guaranteed to carry the stored id; callers rely on the email alone.
+     */
     @Override
     public User persistUser(User user) {
-        return userRepo.findByEmail(user.getEmail())
-                .orElseGet(() -> userRepo.save(user));
+        var email = user.getEmail();
+        if (email == null) {
+            return userRepo.findByEmail(null).orElseGet(() -> userRepo.save(user));
+        }
+        var known = Optional.ofNullable(pendingProfiles.get(email)).map(pending -> toUserDTO(pending.user()))
+                .or(() -> profiles.get(email));
+        if (known.isEmpty()) {
+            userRepo.upsert(user);
+            invalidateProfile(email);
+            return user;
+        }
+        user.setId(known.get().getId());
+        if (!profileChanged(known.get(), toUserDTO(user))) {
+            return user;
+        }
+        pendingProfiles.put(email, new PendingProfile(user, 0));
+        invalidateProfile(email);
+        return user;
+    }
+
+    /**
+     * Upserts queued profile updates in batches of {@code user.write-behind.batch-size}, each batch in one
+     * transaction. Only the latest update per email is kept, so repeated logins between flushes cost one row write.
+     * When a batch fails, its updates are written one at a time so that only those that fail again are retried on
+     * the next flush. An update is dropped after {@code user.write-behind.max-attempts} failed writes, or when a newer
+     * update for the same email arrived in the meantime.
+     */
+    @Scheduled(fixedDelayString = "${user.write-behind.flush-interval-ms:1000}")
+    @PreDestroy
+    public void flushProfileUpdates() {
+        while (!pendingProfiles.isEmpty()) {
+            var batch = new ArrayList<PendingProfile>(writeBehindBatchSize);
+            for (var email : pendingProfiles.keySet()) {
+                if (batch.size() >= writeBehindBatchSize) {
+                    break;
+                }
+                Optional.ofNullable(pendingProfiles.remove(email)).ifPresent(batch::add);
+            }
+            try {
+                transactionOperations.executeWithoutResult(
+                        status -> batch.forEach(pending -> userRepo.upsert(pending.user())));
+                log.debug("Wrote {} queued profile updates", batch.size());
+            } catch (RuntimeException e) {
+                log.warn("Failed to write {} queued profile updates together, writing them one by one: {}",
+                        batch.size(), e.getMessage());
+                var failed = batch.stream().filter(pending -> !writeAlone(pending)).count();
+                if (failed > 0) {
+                    return;
+                }
+            } finally {
+                batch.forEach(pending -> invalidateProfile(pending.user().getEmail()));
+            }
+        }
+    }
+
+    private boolean writeAlone(PendingProfile pending) {
+        try {
+            transactionOperations.executeWithoutResult(status -> userRepo.upsert(pending.user()));
+            return true;
+        } catch (RuntimeException e) {
+            var email = pending.user().getEmail();
+            var failedWrites = pending.failedWrites() + 1;
+            if (failedWrites >= writeBehindMaxAttempts) {
+                log.error("Dropping queued profile update for {} after {} failed writes: {}", email, failedWrites,
+                        e.getMessage());
+            } else {
+                log.warn("Failed to write queued profile update for {}, retrying on next flush: {}", email,
+                        e.getMessage());
+                pendingProfiles.putIfAbsent(email, new PendingProfile(pending.user(), failedWrites));
+            }
+            return false;
+        }
     }
 
     @Override
@@ -46,16 +180,29 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public ResponseEntity<Response> fetchUserInfo() {
+        return fetchUserInfo(null);
+    }
+
+    /**
+     * With {@code fields=basic}, answers name, email, login and avatar from the verified token claims alone, without
+     * touching the cache or the database. Any other value returns the full profile.
+     */
+    @Override
+    public ResponseEntity<Response> fetchUserInfo(String fields) {
         return Optional.ofNullable(extractTokenFromCookies())
                 .map(token -> {
-                    var claims = jwtUtils.parseJwt(token);
+                    var claims = jwtUtils.claimsFor(request, token);
                     var email = claims.get(CLAIM_EMAIL, String.class);
 
-                    return fetchUserByEmail(email)
+                    if (FIELDS_BASIC.equalsIgnoreCase(fields)) {
+                        return ResponseEntity.ok(
+                                new Response(SUCCESS_MSG, toBasicUserDTO(claims), HttpStatus.OK.value()));
+                    }
+                    return cachedProfile(email)
                             .map(u -> ResponseEntity.ok(
                                     new Response(
                                             SUCCESS_MSG,
-                                            toUserDTO(u),
+                                            u,
                                             HttpStatus.OK.value()
                                     )
                             ))
@@ -68,6 +215,38 @@ public class UserServiceImpl implements UserService {
                 );
     }
 
+    private Optional<UserDTO> cachedProfile(String email) {
+        if (email == null) {
+            return fetchUserByEmail(null).map(this::toUserDTO);
+        }
+        var cached = profiles.get(email);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        var writes = profileWrites.get();
+        var profile = Optional.ofNullable(pendingProfiles.get(email)).map(PendingProfile::user)
+                .or(() -> fetchUserByEmail(email))
+                .map(this::toUserDTO);
+        profile.ifPresent(dto -> {
+            profiles.put(email, dto);
+            // Writers bump the counter before invalidating, so either this check or their invalidation removes a
+            // profile read before a concurrent write.
+            if (profileWrites.get() != writes) {
+                profiles.invalidate(email);
+            }
+        });
+        return profile;
+    }
+
+    private void invalidateProfile(String email) {
+        profileWrites.incrementAndGet();
+        profiles.invalidate(email);
+    }
+
+    private static boolean profileChanged(UserDTO stored, UserDTO incoming) {
+        return PROFILE_FIELDS.stream().anyMatch(field -> !Objects.equals(field.apply(stored), field.apply(incoming)));
+    }
+
     private String extractTokenFromCookies() {
         if (request.getCookies() == null) return null;
         for (Cookie cookie : request.getCookies()) {
@@ -76,6 +255,16 @@ public class UserServiceImpl implements UserService {
         return null;
     }
 
+    private UserDTO toBasicUserDTO(Claims claims) {
+        var picture = claims.get(CLAIM_PICTURE, String.class);
+        return UserDTO.builder()
+                .name(claims.get(CLAIM_NAME, String.class))
+                .email(claims.get(CLAIM_EMAIL, String.class))
+                .login(claims.getSubject())
+                .profilePicURL(picture != null ? picture : DEFAULT_PROFILE_PIC)
+                .build();
+    }
+
     private UserDTO toUserDTO(User u) {
         return UserDTO.builder()
                 .id(u.getId())
@@ -0,0 +1,88 @@
+package com.damian.coderover.util;
+
+/**
+ * AIMD concurrency limit for one downstream service. A call is admitted only while fewer than {@link #limit()} calls
+ * are in flight. Every call that completes quickly while the limit is at least half used raises the limit by one;
+ * a call that fails (I/O error, 429, 5xx) or takes longer than {@code slowCallNanos} cuts it by
+ * {@value #BACKOFF_RATIO}. The limit therefore settles just below the concurrency the downstream service can absorb
+ * without slowing down, and excess calls are rejected immediately instead of queueing on request threads.
+ */
+public class AdaptiveLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long slowCallNanos;
+
+    private double limit;
+    private int inFlight;
+    private double averageLatencyNanos;
+    private long rejected;
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, long slowCallNanos) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 0 < min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.slowCallNanos = slowCallNanos;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            rejected++;
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Releases a permit for a call that completed after {@code latencyNanos}.
+     */
+    public synchronized void onSuccess(long latencyNanos) {
+        averageLatencyNanos = averageLatencyNanos == 0
+                ? latencyNanos
+                : averageLatencyNanos + LATENCY_SMOOTHING * (latencyNanos - averageLatencyNanos);
+        if (latencyNanos > slowCallNanos) {
+            decrease();
+        } else if (inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+        inFlight--;
+    }
+
+    /**
+     * Releases a permit for a call that failed in a way that signals overload.
+     */
+    public synchronized void onDropped() {
+        decrease();
+        inFlight--;
+    }
+
+    public synchronized int limit() {
+        return (int) limit;
+    }
+
+    public synchronized int inFlight() {
+        return inFlight;
+    }
+
+    public synchronized long rejected() {
+        return rejected;
+    }
+
+    /**
+     * Seconds a rejected caller should wait before retrying: the smoothed call latency, at least one second.
+     */
+    public synchronized long retryAfterSeconds() {
+        return Math.max(1, (long) Math.ceil(averageLatencyNanos / 1e9));
+    }
+
+    private void decrease() {
+        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+    }
+}
@@ -0,0 +1,156 @@
+package com.damian.coderover.util;
+
+import com.damian.coderover.dto.GitBlobResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Cache for git blobs, keyed by the repository they were fetched from and their SHA. A blob SHA always identifies the
+ * same content, so entries never need to be invalidated; they are only evicted to respect the memory bound. Keeping
+ * the repository in the key means a blob is only ever served for the repository it was read from, so a caller who is
+ * authorized for that repository cannot reach blobs of other repositories by SHA. When
+ * {@code github.blob-cache.disk-dir} is set, blobs are also written to one file per key under that directory and
+ * survive memory eviction and restarts.
+ */
+@Component
+@Log4j2
+public class BlobCache {
+
+    private static final Pattern SHA_PATTERN = Pattern.compile("^[0-9a-f]{40,64}$");
+    private static final String LOG_DISK_READ_FAILED = "Failed to read cached blob {} from disk: {}";
+    private static final String LOG_DISK_WRITE_FAILED = "Failed to write blob {} to disk cache: {}";
+
+    @Value("${github.blob-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${github.blob-cache.disk-dir:}")
+    private String diskDir;
+
+    private BoundedCache<String, GitBlobResponse> memory;
+    private Path diskRoot;
+    private final AtomicLong diskHits = new AtomicLong();
+
+    @PostConstruct
+    public void init() throws IOException {
+        this.memory = new BoundedCache<>(maxBytes, blob -> blob.content() == null ? 0 : blob.content().length());
+        if (diskDir != null && !diskDir.isBlank()) {
+            this.diskRoot = Files.createDirectories(Path.of(diskDir));
+            log.info("Blob disk cache enabled at {}", diskRoot.toAbsolutePath());
+        }
+    }
+
+    public Optional<GitBlobResponse> get(String owner, String repo, String sha) {
+        if (!isCacheable(sha)) {
+            return Optional.empty();
+        }
+        var key = key(owner, repo, sha);
+        var cached = memory.get(key);
+        if (cached.isPresent() || diskRoot == null) {
+            return cached;
+        }
+        var fromDisk = readFromDisk(key);
+        fromDisk.ifPresent(blob -> {
+            diskHits.incrementAndGet();
+            memory.put(key, blob);
+        });
+        return fromDisk;
+    }
+
+    public void put(String owner, String repo, String sha, GitBlobResponse blob) {
+        if (!isCacheable(sha) || blob == null) {
+            return;
+        }
+        var key = key(owner, repo, sha);
+        memory.put(key, blob);
+        if (diskRoot != null) {
+            writeToDisk(key, blob);
+        }
+    }
+
+    public Stats stats() {
+        var memoryStats = memory.stats();
+        return new Stats(memoryStats.hits(), memoryStats.misses(), memoryStats.evictions(), diskHits.get(),
+                memoryStats.size(), memoryStats.weight());
+    }
+
+    /**
+     * Counters for sizing the cache. {@code misses} counts memory misses, of which {@code diskHits} were
+     * then served from the disk tier.
+     */
+    public record Stats(long hits, long misses, long evictions, long diskHits, long entries, long bytes) {
+    }
+
+    private boolean isCacheable(String sha) {
+        return sha != null && SHA_PATTERN.matcher(sha).matches();
+    }
+
+    // Owner and repository names are case-insensitive on GitHub.
+    private static String key(String owner, String repo, String sha) {
+        return Digests.sha256(String.valueOf(owner).toLowerCase(Locale.ROOT),
+                String.valueOf(repo).toLowerCase(Locale.ROOT), sha);
+    }
+
+    private Path pathFor(String key) {
+        return diskRoot.resolve(key.substring(0, 2)).resolve(key.substring(2));
+    }
+
+    private Optional<GitBlobResponse> readFromDisk(String key) {
+        var path = pathFor(key);
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        try {
+            var stored = Files.readString(path, StandardCharsets.UTF_8);
+            var separator = stored.indexOf('\n');
+            if (separator < 0) {
+                return Optional.empty();
+            }
+            return Optional.of(new GitBlobResponse(stored.substring(separator + 1), stored.substring(0, separator)));
+        } catch (IOException e) {
+            log.warn(LOG_DISK_READ_FAILED, key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void writeToDisk(String key, GitBlobResponse blob) {
+        var path = pathFor(key);
+        if (Files.exists(path)) {
+            return;
+        }
+        Path temp = null;
+        try {
+            Files.createDirectories(path.getParent());
+            temp = Files.createTempFile(path.getParent(), key, ".tmp");
+            Files.writeString(temp, Objects.toString(blob.encoding(), "") + "\n" + Objects.toString(blob.content(), ""),
+                    StandardCharsets.UTF_8);
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn(LOG_DISK_WRITE_FAILED, key, e.getMessage());
+            deleteQuietly(temp);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // A stray temp file is harmless; lookups only ever read finalized paths.
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.damian.coderover.util;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread-safe LRU cache bounded by the total weight of its values, with optional expiry after write.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class BoundedCache<K, V> {
+
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Weighted<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a cache holding at most {@code maxEntries} values.
+     */
+    public BoundedCache(long maxEntries) {
+        this(maxEntries, value -> 1L);
+    }
+
+    /**
+     * Creates a cache whose values, as measured by {@code weigher}, never add up to more than {@code maxWeight}.
+     */
+    public BoundedCache(long maxWeight, ToLongFunction<V> weigher) {
+        this(maxWeight, weigher, null);
+    }
+
+    /**
+     * Creates a weight-bounded cache whose entries also expire {@code ttl} after they were written.
+     * A {@code null} or zero ttl disables expiry.
+     */
+    public BoundedCache(long maxWeight, ToLongFunction<V> weigher, Duration ttl) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Cache max weight must be positive");
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.ttlNanos = ttl == null ? 0 : ttl.toNanos();
+    }
+
+    public Optional<V> get(K key) {
+        Weighted<V> entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && isExpired(entry)) {
+                entries.remove(key);
+                weight -= entry.weight();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(entry.value());
+    }
+
+    public void put(K key, V value) {
+        var entryWeight = Math.max(1L, weigher.applyAsLong(value));
+        if (entryWeight > maxWeight) {
+            return;
+        }
+        synchronized (this) {
+            var expiresAt = ttlNanos == 0 ? 0 : System.nanoTime() + ttlNanos;
+            var previous = entries.put(key, new Weighted<>(value, entryWeight, expiresAt));
+            if (previous != null) {
+                weight -= previous.weight();
+            }
+            weight += entryWeight;
+            var iterator = entries.values().iterator();
+            while (weight > maxWeight && iterator.hasNext()) {
+                weight -= iterator.next().weight();
+                iterator.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        var previous = entries.remove(key);
+        if (previous != null) {
+            weight -= previous.weight();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public Stats stats() {
+        synchronized (this) {
+            return new Stats(hits.get(), misses.get(), evictions.get(), entries.size(), weight);
+        }
+    }
+
+    public record Stats(long hits, long misses, long evictions, long size, long weight) {
+    }
+
+    private boolean isExpired(Weighted<V> entry) {
+        return entry.expiresAt() != 0 && System.nanoTime() - entry.expiresAt() > 0;
+    }
+
+    private record Weighted<V>(V value, long weight, long expiresAt) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.damian.coderover.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits Java source into chunks of at most {@code maxChars}, cutting only after a closing brace that ends a
+ * member or type (brace depth back to one or zero), so that every chunk holds whole methods and classes. Braces
+ * inside comments, string, char and text-block literals are ignored. A single member larger than the limit is
+ * cut at the last line break that fits, and only a line longer than the limit is cut mid-line.
+ */
+public final class CodeChunker {
+
+    private CodeChunker() {
+    }
+
+    public static List<String> split(String code, int maxChars) {
+        if (code == null || maxChars <= 0 || code.length() <= maxChars) {
+            return List.of(code == null ? "" : code);
+        }
+        var boundaries = memberBoundaries(code);
+        var chunks = new ArrayList<String>();
+        var start = 0;
+        var next = 0;
+        while (code.length() - start > maxChars) {
+            var limit = start + maxChars;
+            var cut = -1;
+            while (next < boundaries.size() && boundaries.get(next) <= limit) {
+                if (boundaries.get(next) > start) {
+                    cut = boundaries.get(next);
+                }
+                next++;
+            }
+            if (cut < 0) {
+                var lineBreak = code.lastIndexOf('\n', limit - 1);
+                cut = lineBreak >= start ? lineBreak + 1 : limit;
+            }
+            addChunk(chunks, code.substring(start, cut));
+            start = cut;
+        }
+        addChunk(chunks, code.substring(start));
+        return chunks;
+    }
+
+    /**
+     * Offsets just past the line of every closing brace that returns to depth one (end of a member) or zero
+     * (end of a top-level type).
+     */
+    private static List<Integer> memberBoundaries(String code) {
+        var boundaries = new ArrayList<Integer>();
+        var depth = 0;
+        var i = 0;
+        var length = code.length();
+        while (i < length) {
+            var c = code.charAt(i);
+            if (c == '/' && i + 1 < length && code.charAt(i + 1) == '/') {
+                i = endOfLine(code, i);
+            } else if (c == '/' && i + 1 < length && code.charAt(i + 1) == '*') {
+                var end = code.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (code.startsWith("\"\"\"", i)) {
+                var end = code.indexOf("\"\"\"", i + 3);
+                while (end > 0 && code.charAt(end - 1) == '\\') {
+                    end = code.indexOf("\"\"\"", end + 1);
+                }
+                i = end < 0 ? length : end + 3;
+            } else if (c == '"' || c == '\'') {
+                i = endOfLiteral(code, i, c);
+            } else {
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}') {
+                    depth = Math.max(0, depth - 1);
+                    if (depth <= 1) {
+                        boundaries.add(endOfLine(code, i));
+                    }
+                }
+                i++;
+            }
+        }
+        return boundaries;
+    }
+
+    private static int endOfLiteral(String code, int start, char quote) {
+        var i = start + 1;
+        while (i < code.length()) {
+            var c = code.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == quote || c == '\n') {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+        return code.length();
+    }
+
+    private static int endOfLine(String code, int from) {
+        var newline = code.indexOf('\n', from);
+        return newline < 0 ? code.length() : newline + 1;
+    }
+
+    private static void addChunk(List<String> chunks, String chunk) {
+        if (!chunk.isBlank()) {
+            chunks.add(chunk);
+        }
+    }
+}
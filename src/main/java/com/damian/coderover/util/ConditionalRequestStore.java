@@ -0,0 +1,50 @@
+package com.damian.coderover.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Remembers the validators ({@code ETag}, {@code Last-Modified}) and body of GitHub responses per access token and
+ * URL, so that a later request can be sent conditionally and a {@code 304 Not Modified} answered from the stored body.
+ * Keys are digests of the token and URL; raw tokens are never kept.
+ */
+@Component
+public class ConditionalRequestStore {
+
+    @Value("${github.conditional-cache.max-bytes:16777216}")
+    private long maxBytes;
+
+    private BoundedCache<String, Validated> responses;
+
+    @PostConstruct
+    public void init() {
+        this.responses = new BoundedCache<>(maxBytes, validated -> validated.body().length);
+    }
+
+    public static String key(String authorization, String url) {
+        return Digests.sha256(authorization, url);
+    }
+
+    public Optional<Validated> get(String key) {
+        return responses.get(key);
+    }
+
+    public void put(String key, Validated validated) {
+        responses.put(key, validated);
+    }
+
+    public BoundedCache.Stats stats() {
+        return responses.stats();
+    }
+
+    /**
+     * A stored response: its validators, the headers to replay and the raw body.
+     */
+    public record Validated(String etag, String lastModified, Map<String, Collection<String>> headers, byte[] body) {
+    }
+}
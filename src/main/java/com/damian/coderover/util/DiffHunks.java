@@ -0,0 +1,91 @@
+package com.damian.coderover.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a unified diff ({@code git diff}, or GitHub's {@code application/vnd.github.diff}) into its hunks. Each hunk
+ * keeps the context lines the diff was produced with. {@link Hunk#text()} leaves out the hunk's line numbers, so
+ * that an unchanged hunk that only moved up or down the file still renders, and caches, the same.
+ */
+public final class DiffHunks {
+
+    private static final String DEV_NULL = "/dev/null";
+
+    private DiffHunks() {
+    }
+
+    /**
+     * One hunk: the file it belongs to, the enclosing-scope hint git prints after the {@code @@} range, and the
+     * context, removed and added lines.
+     */
+    public record Hunk(String file, String scope, List<String> lines) {
+
+        public boolean hasAdditions() {
+            return lines.stream().anyMatch(line -> line.startsWith("+"));
+        }
+
+        public String text() {
+            var text = new StringBuilder("File: ").append(file).append('\n');
+            if (!scope.isEmpty()) {
+                text.append("In: ").append(scope).append('\n');
+            }
+            lines.forEach(line -> text.append(line).append('\n'));
+            return text.toString();
+        }
+    }
+
+    public static List<Hunk> parse(String diff) {
+        var hunks = new ArrayList<Hunk>();
+        if (diff == null || diff.isBlank()) {
+            return hunks;
+        }
+        String oldFile = null;
+        String newFile = null;
+        String scope = null;
+        List<String> lines = null;
+        for (var line : diff.split("\r?\n")) {
+            if (line.startsWith("diff ")) {
+                addHunk(hunks, newFile, oldFile, scope, lines);
+                lines = null;
+                oldFile = null;
+                newFile = null;
+            } else if (lines == null && line.startsWith("--- ")) {
+                oldFile = path(line.substring(4));
+            } else if (lines == null && line.startsWith("+++ ")) {
+                newFile = path(line.substring(4));
+            } else if (line.startsWith("@@")) {
+                addHunk(hunks, newFile, oldFile, scope, lines);
+                var end = line.indexOf("@@", 2);
+                scope = end < 0 ? "" : line.substring(end + 2).strip();
+                lines = new ArrayList<>();
+            } else if (lines != null && (line.startsWith(" ") || line.startsWith("+") || line.startsWith("-")
+                    || line.startsWith("\\") || line.isEmpty())) {
+                lines.add(line);
+            } else if (lines != null) {
+                // Anything else (index, mode or rename lines of the next file) ends the hunk.
+                addHunk(hunks, newFile, oldFile, scope, lines);
+                lines = null;
+            }
+        }
+        addHunk(hunks, newFile, oldFile, scope, lines);
+        return hunks;
+    }
+
+    private static void addHunk(List<Hunk> hunks, String newFile, String oldFile, String scope, List<String> lines) {
+        if (lines == null || lines.isEmpty()) {
+            return;
+        }
+        var file = newFile != null && !DEV_NULL.equals(newFile) ? newFile : oldFile;
+        hunks.add(new Hunk(file == null ? "" : file, scope == null ? "" : scope, List.copyOf(lines)));
+    }
+
+    private static String path(String name) {
+        var path = name.strip();
+        var tab = path.indexOf('\t');
+        if (tab >= 0) {
+            path = path.substring(0, tab);
+        }
+        return path.startsWith("a/") || path.startsWith("b/") ? path.substring(2) : path;
+    }
+}
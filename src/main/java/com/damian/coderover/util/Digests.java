@@ -0,0 +1,34 @@
+package com.damian.coderover.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 digests for cache keys, idempotency keys and anything else that must not carry the raw input, such as
+ * access tokens.
+ */
+public final class Digests {
+
+    private Digests() {
+    }
+
+    /**
+     * Hex SHA-256 of {@code parts}. Each part is length-prefixed, so no two different part lists hash the same input.
+     */
+    public static String sha256(String... parts) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            for (var part : parts) {
+                var bytes = String.valueOf(part).getBytes(StandardCharsets.UTF_8);
+                digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+                digest.update(bytes);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
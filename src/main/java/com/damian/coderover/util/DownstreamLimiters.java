@@ -0,0 +1,59 @@
+package com.damian.coderover.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link AdaptiveLimiter} per downstream client, configured under {@code downstream.limits.<client>} and
+ * published as {@code downstream.limit}, {@code downstream.inflight} and {@code downstream.rejected} tagged with the
+ * client name. Separate limits act as bulkheads: a saturated review backend exhausts its own permits, not the request
+ * threads that GitHub calls need.
+ */
+@Component
+@RequiredArgsConstructor
+public class DownstreamLimiters {
+
+    public static final String GITHUB = "github";
+    public static final String REVIEW = "review";
+    public static final String CODE_T5 = "codet5";
+
+    private static final String PREFIX = "downstream.limits.";
+    private static final String TAG_CLIENT = "client";
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdaptiveLimiter forClient(String client) {
+        return limiters.computeIfAbsent(client, this::create);
+    }
+
+    private AdaptiveLimiter create(String client) {
+        var prefix = PREFIX + client + ".";
+        var limiter = new AdaptiveLimiter(
+                environment.getProperty(prefix + "initial", Integer.class, 20),
+                environment.getProperty(prefix + "min", Integer.class, 1),
+                environment.getProperty(prefix + "max", Integer.class, 200),
+                environment.getProperty(prefix + "slow-call", Duration.class, Duration.ofSeconds(5)).toNanos());
+        Gauge.builder("downstream.limit", limiter, AdaptiveLimiter::limit)
+                .description("Current adaptive concurrency limit")
+                .tag(TAG_CLIENT, client)
+                .register(meterRegistry);
+        Gauge.builder("downstream.inflight", limiter, AdaptiveLimiter::inFlight)
+                .description("Calls currently in flight")
+                .tag(TAG_CLIENT, client)
+                .register(meterRegistry);
+        FunctionCounter.builder("downstream.rejected", limiter, AdaptiveLimiter::rejected)
+                .description("Calls rejected because the concurrency limit was reached")
+                .tag(TAG_CLIENT, client)
+                .register(meterRegistry);
+        return limiter;
+    }
+}
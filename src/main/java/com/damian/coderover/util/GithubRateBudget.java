@@ -0,0 +1,164 @@
+package com.damian.coderover.util;
+
+import com.damian.coderover.exception.DownstreamBusyException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Tracks GitHub's core REST rate limit per token from the {@code X-RateLimit-*} response headers and decides when
+ * the next call for that token may be sent. Interactive calls may spend the whole budget; bulk calls (repository
+ * scans) leave {@code github.rate-limit.bulk-reserve} requests for interactive use and, once less than a quarter of
+ * the budget is left, are spaced evenly until the window resets instead of exhausting it in a burst. A secondary
+ * rate limit blocks every call for the token until its {@code Retry-After} has passed. Callers never wait longer
+ * than {@code github.rate-limit.max-wait}; beyond that they get a {@link DownstreamBusyException}.
+ */
+@Component
+public class GithubRateBudget {
+
+    public enum Priority { INTERACTIVE, BULK }
+
+    private static final String CLIENT = "github";
+    private static final String ANONYMOUS = "anonymous";
+    private static final double PACE_BELOW_FRACTION = 0.25;
+    private static final ThreadLocal<Priority> PRIORITY = ThreadLocal.withInitial(() -> Priority.INTERACTIVE);
+
+    @Value("${github.rate-limit.bulk-reserve:200}")
+    private int bulkReserve;
+
+    @Value("${github.rate-limit.max-wait:30s}")
+    private Duration maxWait;
+
+    @Value("${github.rate-limit.max-tokens:10000}")
+    private long maxTokens;
+
+    private BoundedCache<String, Budget> budgets;
+
+    @PostConstruct
+    public void init() {
+        this.budgets = new BoundedCache<>(maxTokens);
+    }
+
+    /**
+     * Runs {@code call} with GitHub requests made on this thread classified as {@code priority}.
+     */
+    public static <T> T callWith(Priority priority, Supplier<T> call) {
+        var previous = PRIORITY.get();
+        PRIORITY.set(priority);
+        try {
+            return call.get();
+        } finally {
+            PRIORITY.set(previous);
+        }
+    }
+
+    public static Priority currentPriority() {
+        return PRIORITY.get();
+    }
+
+    /**
+     * Blocks until a call with {@code authorization} and the current thread's priority fits the budget, and
+     * reserves one request of it.
+     */
+    public void acquire(String authorization) throws InterruptedException {
+        var budget = budgetFor(authorization);
+        var priority = currentPriority();
+        var deadline = System.currentTimeMillis() + maxWait.toMillis();
+        while (true) {
+            var now = System.currentTimeMillis();
+            var waitMillis = budget.tryReserve(priority, bulkReserve, now);
+            if (waitMillis == 0) {
+                return;
+            }
+            if (now + waitMillis > deadline) {
+                throw new DownstreamBusyException(CLIENT, Math.max(1, (waitMillis + 999) / 1000));
+            }
+            Thread.sleep(waitMillis);
+        }
+    }
+
+    /**
+     * Records the rate limit headers of a response. {@code resource} is GitHub's {@code X-RateLimit-Resource};
+     * budgets other than {@code core} (search, graphql) are not tracked.
+     */
+    public void update(String authorization, String resource, Integer limit, Integer remaining, Long resetEpochSeconds) {
+        if (limit == null || remaining == null || resetEpochSeconds == null
+                || (resource != null && !"core".equals(resource))) {
+            return;
+        }
+        budgetFor(authorization).update(limit, remaining, resetEpochSeconds * 1000);
+    }
+
+    /**
+     * Stops all calls for {@code authorization} for {@code backoff} after a secondary rate limit.
+     */
+    public void block(String authorization, Duration backoff) {
+        budgetFor(authorization).blockUntil(System.currentTimeMillis() + backoff.toMillis());
+    }
+
+    public Duration maxWait() {
+        return maxWait;
+    }
+
+    private synchronized Budget budgetFor(String authorization) {
+        var key = Digests.sha256("github-rate", authorization == null ? ANONYMOUS : authorization);
+        var budget = budgets.get(key);
+        if (budget.isPresent()) {
+            return budget.get();
+        }
+        var created = new Budget();
+        budgets.put(key, created);
+        return created;
+    }
+
+    private static final class Budget {
+        private int limit = -1;
+        private int remaining;
+        private long resetAtMillis;
+        private long blockedUntilMillis;
+        private long nextBulkAtMillis;
+
+        /**
+         * Returns 0 and takes one request from the budget if a call may go now, otherwise the milliseconds to wait.
+         */
+        synchronized long tryReserve(Priority priority, int bulkReserve, long now) {
+            if (now < blockedUntilMillis) {
+                return blockedUntilMillis - now;
+            }
+            if (limit < 0) {
+                return 0;
+            }
+            if (now >= resetAtMillis) {
+                // The window has reset; assume a full budget until the next response says otherwise.
+                remaining = limit;
+                resetAtMillis = now + Duration.ofHours(1).toMillis();
+            }
+            var available = priority == Priority.BULK ? remaining - bulkReserve : remaining;
+            if (available <= 0) {
+                return resetAtMillis - now;
+            }
+            if (priority == Priority.BULK && remaining < limit * PACE_BELOW_FRACTION) {
+                if (now < nextBulkAtMillis) {
+                    return nextBulkAtMillis - now;
+                }
+                nextBulkAtMillis = now + (resetAtMillis - now) / available;
+            }
+            remaining--;
+            return 0;
+        }
+
+        synchronized void update(int limit, int remaining, long resetAtMillis) {
+            // Responses can arrive out of order; within one window the lowest count is the most recent.
+            this.remaining = resetAtMillis == this.resetAtMillis ? Math.min(this.remaining, remaining) : remaining;
+            this.limit = limit;
+            this.resetAtMillis = resetAtMillis;
+        }
+
+        synchronized void blockUntil(long millis) {
+            blockedUntilMillis = Math.max(blockedUntilMillis, millis);
+        }
+    }
+}
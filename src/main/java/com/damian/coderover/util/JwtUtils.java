@@ -1,35 +1,91 @@
 package com.damian.coderover.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.security.Key;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
 
 
+/**
+ * Verifies JWTs with one shared parser. Tokens that already passed signature verification are remembered
+ * until they expire, and the claims verified by {@code JwtAuthenticationFilter} are attached to the request
+ * so that services handling the same request do not verify the token again. Only actual verifications are timed
+ * as {@code jwt.parse}, so cache hits do not hide the cost of a signature check.
+ */
 @Component
+@RequiredArgsConstructor
 public class JwtUtils {
 
+    public static final String CLAIMS_ATTRIBUTE = JwtUtils.class.getName() + ".claims";
+
+    private static final String METRIC_JWT_PARSE = "jwt.parse";
+
+    private final MeterRegistry meterRegistry;
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
-    private Key signingKey;
+    @Value("${jwt.claims-cache.max-entries:10000}")
+    private long maxCachedTokens;
+
+    private JwtParser parser;
+    private BoundedCache<String, Claims> verifiedTokens;
 
     @PostConstruct
     public void init() {
-        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        var signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedTokens = new BoundedCache<>(maxCachedTokens);
     }
 
     public Claims parseJwt(String jwt) {
-        return Jwts.parser()
-                .verifyWith((SecretKey) signingKey)
-                .build()
-                .parseSignedClaims(jwt)
-                .getPayload();
+        var cached = verifiedTokens.get(jwt);
+        if (cached.isPresent() && !isExpired(cached.get())) {
+            return cached.get();
+        }
+        var sample = Timer.start(meterRegistry);
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(jwt).getPayload();
+        } catch (RuntimeException e) {
+            sample.stop(meterRegistry.timer(METRIC_JWT_PARSE, "outcome", "invalid"));
+            throw e;
+        }
+        sample.stop(meterRegistry.timer(METRIC_JWT_PARSE, "outcome", "valid"));
+        verifiedTokens.put(jwt, claims);
+        return claims;
+    }
+
+    /**
+     * Returns the claims of {@code jwt}, reusing those already verified for this request when the token matches.
+     */
+    public Claims claimsFor(HttpServletRequest request, String jwt) {
+        if (request.getAttribute(CLAIMS_ATTRIBUTE) instanceof VerifiedJwt verified && verified.token().equals(jwt)
+                && !isExpired(verified.claims())) {
+            return verified.claims();
+        }
+        return parseJwt(jwt);
+    }
+
+    public void exposeClaims(HttpServletRequest request, String jwt, Claims claims) {
+        request.setAttribute(CLAIMS_ATTRIBUTE, new VerifiedJwt(jwt, claims));
+    }
+
+    private boolean isExpired(Claims claims) {
+        var expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
+    }
 
+    private record VerifiedJwt(String token, Claims claims) {
     }
-}
\ No newline at end of file
+}
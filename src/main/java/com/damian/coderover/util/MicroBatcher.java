@@ -0,0 +1,150 @@
+package com.damian.coderover.util;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Groups concurrent single-item calls into batch calls. A collector thread takes the first waiting item, waits for a
+ * free batch slot (at most {@code maxConcurrentBatches} batch calls run at once), then gathers further items for up
+ * to {@code maxWait} or until {@code maxBatchSize} is reached. While all slots are busy, items keep queueing, so
+ * batches grow with load and stay small (low latency) when traffic is light. Results are matched to callers by
+ * position; a failed batch call fails every caller in it.
+ *
+ * @param <I> input type
+ * @param <O> output type
+ */
+@Log4j2
+public class MicroBatcher<I, O> implements AutoCloseable {
+
+    private final Function<List<I>, List<O>> batchCall;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final Semaphore slots;
+    private final BlockingQueue<Pending<I, O>> queue = new LinkedBlockingQueue<>();
+    private final ExecutorService callers;
+    private final Thread collector;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong items = new AtomicLong();
+    private volatile boolean closed;
+
+    public MicroBatcher(String name, int maxBatchSize, Duration maxWait, int maxConcurrentBatches,
+                        Function<List<I>, List<O>> batchCall) {
+        if (maxBatchSize <= 0 || maxConcurrentBatches <= 0) {
+            throw new IllegalArgumentException("Batch size and concurrency must be positive");
+        }
+        this.batchCall = batchCall;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.slots = new Semaphore(maxConcurrentBatches);
+        this.callers = Executors.newFixedThreadPool(maxConcurrentBatches,
+                Thread.ofPlatform().daemon().name(name + "-", 0).factory());
+        this.collector = Thread.ofPlatform().daemon().name(name + "-collector").start(this::collect);
+    }
+
+    public CompletableFuture<O> submit(I input) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Batcher is closed"));
+        }
+        var pending = new Pending<I, O>(input, new CompletableFuture<>());
+        queue.add(pending);
+        // close() may have drained the queue between the check above and the add; nobody would take this item.
+        if (closed && queue.remove(pending)) {
+            pending.result().completeExceptionally(new IllegalStateException("Batcher is closed"));
+        }
+        return pending.result();
+    }
+
+    /**
+     * Number of batch calls made.
+     */
+    public long batches() {
+        return batches.get();
+    }
+
+    /**
+     * Number of items sent in those batch calls.
+     */
+    public long items() {
+        return items.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        collector.interrupt();
+        callers.shutdown();
+        failAll(drain(), new IllegalStateException("Batcher is closed"));
+    }
+
+    private void collect() {
+        while (!closed) {
+            var batch = new ArrayList<Pending<I, O>>(maxBatchSize);
+            try {
+                batch.add(queue.take());
+                slots.acquire();
+                var deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    var remaining = deadline - System.nanoTime();
+                    var next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                callers.execute(() -> dispatch(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failAll(batch, new IllegalStateException("Batcher is closed"));
+                return;
+            } catch (RuntimeException e) {
+                slots.release();
+                failAll(batch, e);
+            }
+        }
+    }
+
+    private void dispatch(List<Pending<I, O>> batch) {
+        try {
+            batches.incrementAndGet();
+            items.addAndGet(batch.size());
+            var outputs = batchCall.apply(batch.stream().map(Pending::input).toList());
+            if (outputs == null || outputs.size() != batch.size()) {
+                throw new IllegalStateException("Batch call returned " + (outputs == null ? 0 : outputs.size())
+                        + " results for " + batch.size() + " inputs");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(outputs.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.debug("Batch of {} failed: {}", batch.size(), e.getMessage());
+            failAll(batch, e);
+        } finally {
+            slots.release();
+        }
+    }
+
+    private List<Pending<I, O>> drain() {
+        var remaining = new ArrayList<Pending<I, O>>();
+        queue.drainTo(remaining);
+        return remaining;
+    }
+
+    private void failAll(List<Pending<I, O>> batch, Throwable error) {
+        batch.forEach(pending -> pending.result().completeExceptionally(error));
+    }
+
+    private record Pending<I, O>(I input, CompletableFuture<O> result) {
+    }
+}
@@ -0,0 +1,327 @@
+package com.damian.coderover.util;
+
+import com.damian.coderover.dto.GitTreeResponse;
+import com.damian.coderover.dto.GitTreeResponse.TreeItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Branch snapshots extracted from GitHub zipball archives, one directory per repository and commit SHA under
+ * {@code github.snapshot.dir}, which only the service's own user can read. Each snapshot records the git blob SHA of
+ * every file, computed from the archive content the way git does ({@code sha1("blob <size>\0" + content)}), so that
+ * tree listings and blob lookups for a whole branch are served from disk after a single download. Files rewritten by {@code export-subst} or dropped by
+ * {@code export-ignore} attributes are the exception and hash differently, or are missing.
+ * <p>
+ * A snapshot only answers for the repository it was downloaded from; callers check that the token can read that
+ * repository before asking.
+ * <p>
+ * Snapshots survive restarts; the least recently used ones beyond {@code github.snapshot.max-snapshots} are deleted.
+ * Snapshots left by an earlier run count towards that limit from startup, ordered by when they were last loaded.
+ */
+@Component
+@Log4j2
+public class RepoSnapshotStore {
+
+    private static final Pattern COMMIT_SHA = Pattern.compile("^[0-9a-f]{40,64}$");
+    private static final String FILES_DIR = "files";
+    private static final String INDEX_FILE = "index.json";
+    private static final ObjectMapper INDEX_MAPPER = new ObjectMapper();
+    private static final String OWNER_ONLY = "rwx------";
+
+    @Value("${github.snapshot.dir:${java.io.tmpdir}/coderover-snapshots}")
+    private String snapshotDir;
+
+    @Value("${github.snapshot.max-snapshots:20}")
+    private int maxSnapshots;
+
+    @Value("${github.snapshot.max-bytes:536870912}")
+    private long maxExtractedBytes;
+
+    private Path root;
+    private LinkedHashMap<String, Snapshot> snapshots;
+    // Snapshots of an earlier run that have not been loaded since, least recently used first.
+    private LinkedHashSet<String> unloaded;
+
+    @PostConstruct
+    public void init() throws IOException {
+        this.root = ownerOnlyDirectory(Path.of(snapshotDir));
+        this.snapshots = new LinkedHashMap<>(16, 0.75f, true);
+        this.unloaded = new LinkedHashSet<>();
+        List<Path> existing;
+        try (var dirs = Files.list(root)) {
+            existing = new ArrayList<>(dirs.toList());
+        }
+        existing.removeIf(dir -> {
+            if (dir.getFileName().toString().contains(".tmp-")) {
+                delete(dir);
+                return true;
+            }
+            return !Files.isDirectory(dir);
+        });
+        existing.sort(Comparator.comparing(RepoSnapshotStore::lastModified));
+        var stale = Math.max(0, existing.size() - maxSnapshots);
+        existing.subList(0, stale).forEach(RepoSnapshotStore::delete);
+        existing.subList(stale, existing.size()).forEach(dir -> unloaded.add(dir.getFileName().toString()));
+        if (stale > 0) {
+            log.info("Deleted {} snapshots of an earlier run beyond the limit of {}", stale, maxSnapshots);
+        }
+    }
+
+    /**
+     * A branch snapshot: the repository and commit it was taken from, the blobs it contains and where each blob's
+     * file lives.
+     */
+    public record Snapshot(String repository, String commitSha, Path files, GitTreeResponse tree,
+                           Map<String, String> pathByBlobSha) {
+    }
+
+    public Optional<Snapshot> get(String owner, String repo, String commitSha) {
+        if (!isCommitSha(commitSha)) {
+            return Optional.empty();
+        }
+        var id = snapshotId(owner, repo, commitSha);
+        synchronized (this) {
+            var snapshot = snapshots.get(id);
+            if (snapshot != null) {
+                return Optional.of(snapshot);
+            }
+        }
+        var dir = root.resolve(id);
+        if (!Files.isRegularFile(dir.resolve(INDEX_FILE))) {
+            return Optional.empty();
+        }
+        try {
+            var tree = INDEX_MAPPER.readValue(dir.resolve(INDEX_FILE).toFile(), GitTreeResponse.class);
+            return Optional.of(remember(id, toSnapshot(repository(owner, repo), commitSha, dir, tree)));
+        } catch (IOException e) {
+            log.warn("Discarding unreadable snapshot {} of {}/{}: {}", commitSha, owner, repo, e.getMessage());
+            delete(dir);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Extracts the zipball in {@code archive} as the snapshot of {@code commitSha} in {@code owner/repo}. The archive
+     * is unpacked into a temporary directory and moved into place only once complete, so a failed or concurrent
+     * extraction never leaves a partial snapshot behind.
+     */
+    public Snapshot extract(String owner, String repo, String commitSha, InputStream archive) throws IOException {
+        if (!isCommitSha(commitSha)) {
+            throw new IllegalArgumentException("Invalid commit SHA: " + commitSha);
+        }
+        var id = snapshotId(owner, repo, commitSha);
+        var staging = root.resolve(id + ".tmp-" + UUID.randomUUID());
+        var files = Files.createDirectories(staging.resolve(FILES_DIR));
+        try {
+            var tree = unzip(commitSha, archive, files);
+            INDEX_MAPPER.writeValue(staging.resolve(INDEX_FILE).toFile(), tree);
+            var target = root.resolve(id);
+            try {
+                Files.move(staging, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileSystemException e) {
+                // Another extraction of the same commit won; on Linux this is "Directory not empty" rather than
+                // FileAlreadyExistsException. Its snapshot is complete once its index exists.
+                if (!Files.isRegularFile(target.resolve(INDEX_FILE))) {
+                    throw e;
+                }
+                delete(staging);
+            }
+            return remember(id, toSnapshot(repository(owner, repo), commitSha, target, tree));
+        } catch (IOException | RuntimeException e) {
+            delete(staging);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the content of the blob {@code blobSha} from any snapshot of {@code owner/repo} that contains it.
+     */
+    public Optional<byte[]> readBlob(String owner, String repo, String blobSha) {
+        var repository = repository(owner, repo);
+        Path file = null;
+        synchronized (this) {
+            for (var snapshot : snapshots.values()) {
+                var path = snapshot.repository().equals(repository) ? snapshot.pathByBlobSha().get(blobSha) : null;
+                if (path != null) {
+                    file = snapshot.files().resolve(path);
+                    break;
+                }
+            }
+        }
+        if (file == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Files.readAllBytes(file));
+        } catch (IOException e) {
+            log.warn("Failed to read snapshot blob {}: {}", blobSha, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public static boolean isCommitSha(String sha) {
+        return sha != null && COMMIT_SHA.matcher(sha).matches();
+    }
+
+    private GitTreeResponse unzip(String commitSha, InputStream archive, Path files) throws IOException {
+        var items = new ArrayList<TreeItem>();
+        var extracted = 0L;
+        var buffer = new byte[8192];
+        try (var zip = new ZipInputStream(archive)) {
+            for (var entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                // GitHub wraps everything in one "<owner>-<repo>-<short sha>/" directory.
+                var name = entry.getName();
+                var slash = name.indexOf('/');
+                var path = slash < 0 ? "" : name.substring(slash + 1);
+                if (entry.isDirectory() || path.isEmpty()) {
+                    continue;
+                }
+                var target = files.resolve(path).normalize();
+                if (!target.startsWith(files)) {
+                    throw new IOException("Archive entry escapes the snapshot directory: " + name);
+                }
+                Files.createDirectories(target.getParent());
+                var digest = sha1();
+                var size = 0L;
+                try (var out = Files.newOutputStream(target)) {
+                    for (int read; (read = zip.read(buffer)) > 0; ) {
+                        size += read;
+                        extracted += read;
+                        if (extracted > maxExtractedBytes) {
+                            throw new IOException("Archive of " + commitSha + " exceeds " + maxExtractedBytes + " bytes");
+                        }
+                        out.write(buffer, 0, read);
+                    }
+                }
+                digest.update(("blob " + size + "\0").getBytes(StandardCharsets.US_ASCII));
+                try (var in = Files.newInputStream(target)) {
+                    for (int read; (read = in.read(buffer)) > 0; ) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+                items.add(new TreeItem(path, "blob", HexFormat.of().formatHex(digest.digest())));
+            }
+        }
+        return new GitTreeResponse(commitSha, items);
+    }
+
+    private static String repository(String owner, String repo) {
+        return owner.toLowerCase(Locale.ROOT) + "/" + repo.toLowerCase(Locale.ROOT);
+    }
+
+    // Hashed so that owner and repository names never reach the file system as path segments.
+    private static String snapshotId(String owner, String repo, String commitSha) {
+        return Digests.sha256(owner.toLowerCase(Locale.ROOT), repo.toLowerCase(Locale.ROOT), commitSha);
+    }
+
+    private static Path ownerOnlyDirectory(Path dir) throws IOException {
+        if (!dir.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return Files.createDirectories(dir);
+        }
+        var permissions = PosixFilePermissions.fromString(OWNER_ONLY);
+        Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(permissions));
+        // Also tightens a directory left behind by an earlier version, or created with the umask applied.
+        Files.setPosixFilePermissions(dir, permissions);
+        return dir;
+    }
+
+    private static Snapshot toSnapshot(String repository, String commitSha, Path dir, GitTreeResponse tree) {
+        var pathByBlobSha = new HashMap<String, String>();
+        for (var item : tree.tree()) {
+            pathByBlobSha.putIfAbsent(item.sha(), item.path());
+        }
+        return new Snapshot(repository, commitSha, dir.resolve(FILES_DIR), tree, Map.copyOf(pathByBlobSha));
+    }
+
+    private Snapshot remember(String id, Snapshot snapshot) {
+        var evicted = new ArrayList<Path>();
+        synchronized (this) {
+            unloaded.remove(id);
+            snapshots.put(id, snapshot);
+            var stale = unloaded.iterator();
+            while (snapshots.size() + unloaded.size() > maxSnapshots && stale.hasNext()) {
+                evicted.add(root.resolve(stale.next()));
+                stale.remove();
+            }
+            var iterator = snapshots.values().iterator();
+            while (snapshots.size() > maxSnapshots && iterator.hasNext()) {
+                evicted.add(iterator.next().files().getParent());
+                iterator.remove();
+            }
+        }
+        evicted.forEach(RepoSnapshotStore::delete);
+        touch(snapshot.files().getParent());
+        return snapshot;
+    }
+
+    // Orders snapshots by last use for the trimming in init() after a restart.
+    private static void touch(Path dir) {
+        try {
+            Files.setLastModifiedTime(dir, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.debug("Failed to touch snapshot directory {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private static FileTime lastModified(Path dir) {
+        try {
+            return Files.getLastModifiedTime(dir);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void delete(Path dir) {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (var paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Failed to delete snapshot directory {}: {}", dir, e.getMessage());
+        }
+    }
+
+    private static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.damian.coderover.util;
+
+import com.damian.coderover.entity.ReviewCacheEntry;
+import com.damian.coderover.repository.ReviewCacheRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Two-tier cache of review results. Keys are SHA-256 digests of everything that determines a review (model,
+ * prompt and code), so a changed prompt or model naturally misses. Entries live in a bounded in-memory tier
+ * and, unless {@code review.cache.persistent} is off, in the {@code review_cache} table so they survive restarts
+ * and are shared between instances.
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class ReviewCache {
+
+    private final ReviewCacheRepo reviewCacheRepo;
+    private final ObjectMapper objectMapper;
+
+    @Value("${review.cache.max-entries:10000}")
+    private long maxEntries;
+
+    @Value("${review.cache.ttl:P7D}")
+    private Duration ttl;
+
+    @Value("${review.cache.persistent:true}")
+    private boolean persistent;
+
+    private BoundedCache<String, Object> memory;
+
+    @PostConstruct
+    public void init() {
+        this.memory = new BoundedCache<>(maxEntries, value -> 1L, ttl);
+    }
+
+    public static String key(String... parts) {
+        return Digests.sha256(parts);
+    }
+
+    public <T> Optional<T> get(String key, Class<T> type) {
+        var cached = memory.get(key).filter(type::isInstance).map(type::cast);
+        if (cached.isPresent() || !persistent) {
+            return cached;
+        }
+        try {
+            var stored = reviewCacheRepo.findById(key)
+                    .filter(entry -> entry.getExpiresAt() == null || entry.getExpiresAt().isAfter(Instant.now()));
+            if (stored.isEmpty()) {
+                return Optional.empty();
+            }
+            var value = objectMapper.readValue(stored.get().getPayload(), type);
+            memory.put(key, value);
+            return Optional.of(value);
+        } catch (Exception e) {
+            log.warn("Review cache lookup failed for {}: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void put(String key, String model, Object value) {
+        if (value == null) {
+            return;
+        }
+        memory.put(key, value);
+        if (!persistent) {
+            return;
+        }
+        try {
+            var now = Instant.now();
+            reviewCacheRepo.save(ReviewCacheEntry.builder()
+                    .cacheKey(key)
+                    .model(model)
+                    .payload(objectMapper.writeValueAsString(value))
+                    .createdAt(now)
+                    .expiresAt(now.plus(ttl))
+                    .build());
+        } catch (Exception e) {
+            log.warn("Failed to persist review cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    public BoundedCache.Stats stats() {
+        return memory.stats();
+    }
+
+    @Scheduled(fixedDelayString = "${review.cache.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        if (!persistent) {
+            return;
+        }
+        var purged = reviewCacheRepo.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.info("Purged {} expired review cache entries", purged);
+        }
+    }
+}
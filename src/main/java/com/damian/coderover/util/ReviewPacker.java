@@ -0,0 +1,115 @@
+package com.damian.coderover.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Packs several files into one review request and reads per-file verdicts back out of the answer. Files are
+ * delimited by {@code ### FILE: <label>} headings in both directions, and each answer section is expected to end in a
+ * {@code VERDICT: BLOCK} or {@code VERDICT: ALLOW} line.
+ */
+public final class ReviewPacker {
+
+    public static final String FILE_HEADING = "### FILE: ";
+
+    private static final Pattern VERDICT = Pattern.compile("(?im)^\\W*verdict\\W*:?\\W*(block|allow)\\b.*$");
+
+    private ReviewPacker() {
+    }
+
+    /**
+     * A file, or part of one, to review under {@code label}.
+     */
+    public record Section(String label, String content) {
+    }
+
+    public record Verdict(boolean blocked, String review) {
+    }
+
+    /**
+     * Groups {@code sections} into packs whose content adds up to at most {@code maxChars}, first-fit by decreasing
+     * size. A section larger than the budget gets a pack of its own.
+     */
+    public static List<List<Section>> pack(List<Section> sections, int maxChars) {
+        var packs = new ArrayList<List<Section>>();
+        var sizes = new ArrayList<Integer>();
+        var bySize = sections.stream().sorted(Comparator.comparingInt(ReviewPacker::size).reversed()).toList();
+        for (var section : bySize) {
+            var size = size(section);
+            var placed = false;
+            for (int i = 0; i < packs.size() && !placed; i++) {
+                if (sizes.get(i) + size <= maxChars) {
+                    packs.get(i).add(section);
+                    sizes.set(i, sizes.get(i) + size);
+                    placed = true;
+                }
+            }
+            if (!placed) {
+                packs.add(new ArrayList<>(List.of(section)));
+                sizes.add(size);
+            }
+        }
+        return packs;
+    }
+
+    public static String render(List<Section> pack) {
+        var text = new StringBuilder();
+        for (var section : pack) {
+            text.append(FILE_HEADING).append(section.label()).append("\n```\n").append(section.content());
+            if (!section.content().endsWith("\n")) {
+                text.append('\n');
+            }
+            text.append("```\n\n");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Reads the verdict of every {@code ### FILE:} section in {@code answer}, keyed by label. Sections without a
+     * verdict line are left out.
+     */
+    public static Map<String, Verdict> parse(String answer) {
+        var verdicts = new LinkedHashMap<String, Verdict>();
+        if (answer == null) {
+            return verdicts;
+        }
+        String label = null;
+        var body = new StringBuilder();
+        for (var line : answer.split("\r?\n")) {
+            var heading = line.strip();
+            if (heading.startsWith(FILE_HEADING.strip())) {
+                addVerdict(verdicts, label, body);
+                label = heading.substring(FILE_HEADING.strip().length()).strip().replace("`", "");
+                body.setLength(0);
+            } else if (label != null) {
+                body.append(line).append('\n');
+            }
+        }
+        addVerdict(verdicts, label, body);
+        return verdicts;
+    }
+
+    private static void addVerdict(Map<String, Verdict> verdicts, String label, StringBuilder body) {
+        if (label == null) {
+            return;
+        }
+        var matcher = VERDICT.matcher(body);
+        String decision = null;
+        while (matcher.find()) {
+            decision = matcher.group(1).toLowerCase(Locale.ROOT);
+        }
+        if (decision != null) {
+            var review = VERDICT.matcher(body).replaceAll("").strip();
+            verdicts.putIfAbsent(label, new Verdict("block".equals(decision), review));
+        }
+    }
+
+    private static int size(Section section) {
+        return section.label().length() + section.content().length();
+    }
+}
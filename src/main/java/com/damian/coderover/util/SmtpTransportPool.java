@@ -0,0 +1,179 @@
+package com.damian.coderover.util;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Authenticator;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.PasswordAuthentication;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * One SMTP {@link Session} and a small pool of connected {@link Transport}s reused across messages, so that a
+ * report costs one SMTP transaction instead of a TCP, STARTTLS and AUTH handshake each time. Idle connections are
+ * checked before reuse (SMTP servers drop them after a few minutes) and replaced when stale.
+ */
+@Component
+@Log4j2
+public class SmtpTransportPool {
+
+    @Value("${spring.mail.host}")
+    private String smtpHost;
+
+    @Value("${spring.mail.port}")
+    private int smtpPort;
+
+    @Value("${spring.mail.username}")
+    private String smtpUsername;
+
+    @Value("${spring.mail.password}")
+    private String smtpPassword;
+
+    @Value("${spring.mail.properties.mail.smtp.starttls.enable:true}")
+    private boolean smtpStartTls;
+
+    @Value("${spring.mail.properties.mail.smtp.starttls.required:false}")
+    private boolean smtpStartTlsRequired;
+
+    @Value("${spring.mail.properties.mail.smtp.auth:true}")
+    private boolean smtpAuth;
+
+    @Value("${spring.mail.properties.mail.smtp.connectiontimeout:0}")
+    private int connectionTimeoutMs;
+
+    @Value("${spring.mail.properties.mail.smtp.timeout:0}")
+    private int readTimeoutMs;
+
+    @Value("${spring.mail.properties.mail.smtp.writetimeout:0}")
+    private int writeTimeoutMs;
+
+    @Value("${spring.mail.properties.mail.smtp.ssl.trust:}")
+    private String sslTrust;
+
+    @Value("${mail.pool.size:2}")
+    private int poolSize;
+
+    private Session session;
+    private BlockingQueue<Transport> idle;
+    private volatile boolean closed;
+
+    @PostConstruct
+    public void init() {
+        Authenticator authenticator = smtpAuth
+                ? new Authenticator() {
+            @Override
+            protected PasswordAuthentication getPasswordAuthentication() {
+                return new PasswordAuthentication(smtpUsername, smtpPassword);
+            }
+        }
+                : null;
+        this.session = Session.getInstance(getProperties(), authenticator);
+        this.idle = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    /**
+     * Creates a message whose {@code Message-ID} is {@code messageId} instead of a fresh random one, so that
+     * re-sending the same message after a retry is recognisable as a duplicate by the receiving side.
+     */
+    public MimeMessage newMessage(String messageId) {
+        return new MimeMessage(session) {
+            @Override
+            protected void updateMessageID() throws MessagingException {
+                setHeader("Message-ID", messageId);
+            }
+        };
+    }
+
+    /**
+     * Sends {@code message} over a pooled connection. A send that fails on a reused connection is retried once on
+     * a fresh one, since the failure is most likely the server having closed it. A failure on a fresh connection is
+     * the server's answer and is not retried. A connection whose send failed is always closed.
+     */
+    public void send(Message message) throws MessagingException {
+        var pooled = pollIdle();
+        if (pooled != null) {
+            try {
+                pooled.sendMessage(message, message.getAllRecipients());
+                release(pooled);
+                return;
+            } catch (MessagingException e) {
+                closeQuietly(pooled);
+                log.debug("Send failed on pooled SMTP connection, retrying on a new one: {}", e.getMessage());
+            } catch (RuntimeException e) {
+                closeQuietly(pooled);
+                throw e;
+            }
+        }
+        var transport = connect();
+        try {
+            transport.sendMessage(message, message.getAllRecipients());
+        } catch (MessagingException | RuntimeException e) {
+            closeQuietly(transport);
+            throw e;
+        }
+        release(transport);
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        Transport transport;
+        while ((transport = idle.poll()) != null) {
+            closeQuietly(transport);
+        }
+    }
+
+    private Transport pollIdle() {
+        Transport transport;
+        while ((transport = idle.poll()) != null) {
+            if (transport.isConnected()) {
+                return transport;
+            }
+            closeQuietly(transport);
+        }
+        return null;
+    }
+
+    private Transport connect() throws MessagingException {
+        var transport = session.getTransport("smtp");
+        transport.connect();
+        return transport;
+    }
+
+    private void release(Transport transport) {
+        if (closed || !idle.offer(transport)) {
+            closeQuietly(transport);
+        }
+    }
+
+    private void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Failed to close SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    private Properties getProperties() {
+        var props = new Properties();
+        props.put("mail.smtp.auth", String.valueOf(smtpAuth));
+        props.put("mail.smtp.starttls.enable", String.valueOf(smtpStartTls));
+        props.put("mail.smtp.starttls.required", String.valueOf(smtpStartTlsRequired));
+        props.put("mail.smtp.host", smtpHost);
+        props.put("mail.smtp.port", String.valueOf(smtpPort));
+        if (connectionTimeoutMs > 0) props.put("mail.smtp.connectiontimeout", String.valueOf(connectionTimeoutMs));
+        if (readTimeoutMs > 0) props.put("mail.smtp.timeout", String.valueOf(readTimeoutMs));
+        if (writeTimeoutMs > 0) props.put("mail.smtp.writetimeout", String.valueOf(writeTimeoutMs));
+        if (sslTrust != null && !sslTrust.isBlank()) props.put("mail.smtp.ssl.trust", sslTrust);
+        return props;
+    }
+}
@@ -0,0 +1,10 @@
+-- One-off migration for databases created before the unique index on user.email.
+-- Hibernate (ddl-auto: update) adds ux_user_email on its own, but the ALTER fails while duplicate emails exist,
+-- which earlier concurrent logins could create. Run this once before deploying.
+
+-- Keep one row per email: the one with the smallest id.
+DELETE u
+FROM `user` u
+         JOIN `user` keep ON keep.email = u.email AND keep.id < u.id;
+
+ALTER TABLE `user` ADD UNIQUE INDEX ux_user_email (email);
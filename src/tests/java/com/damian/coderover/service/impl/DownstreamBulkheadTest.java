@@ -0,0 +1,121 @@
+package com.damian.coderover.service.impl;
+
+import com.damian.coderover.exception.DownstreamBusyException;
+import com.damian.coderover.exception.GithubException;
+import com.damian.coderover.feign.LimitingClient;
+import com.damian.coderover.handler.ExceptionHandler;
+import com.damian.coderover.util.AdaptiveLimiter;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DownstreamBulkheadTest {
+
+    private static final long SLOW_CALL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void limiter_growsOnFastCallsAndBacksOffOnOverload() {
+        var limiter = new AdaptiveLimiter(4, 2, 6, SLOW_CALL_NANOS);
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.rejected()).isEqualTo(1);
+
+        limiter.onSuccess(1_000_000);
+        assertThat(limiter.limit()).isEqualTo(5);
+
+        limiter.onDropped();
+        limiter.onSuccess(SLOW_CALL_NANOS * 3);
+        assertThat(limiter.limit()).isEqualTo(4);
+        assertThat(limiter.inFlight()).isEqualTo(1);
+        assertThat(limiter.retryAfterSeconds()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void saturatedReviewBulkhead_doesNotDelayGithubCalls() throws Exception {
+        var release = new CountDownLatch(1);
+        var reviewLimiter = new AdaptiveLimiter(2, 1, 2, SLOW_CALL_NANOS);
+        var review = new LimitingClient("review", reviewLimiter, (request, options) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ok(request);
+        });
+        var github = new LimitingClient("github", new AdaptiveLimiter(2, 1, 10, SLOW_CALL_NANOS),
+                (request, options) -> ok(request));
+
+        try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            var pending = new ArrayList<Future<Response>>();
+            for (int i = 0; i < 2; i++) {
+                pending.add(pool.submit(() -> review.execute(request("/v1/responses"), options())));
+            }
+            awaitInFlight(reviewLimiter, 2);
+
+            var start = System.nanoTime();
+            assertThatThrownBy(() -> review.execute(request("/v1/responses"), options()))
+                    .isInstanceOf(DownstreamBusyException.class);
+            for (int i = 0; i < 20; i++) {
+                assertThat(github.execute(request("/user/repos"), options()).status()).isEqualTo(200);
+            }
+            assertThat(System.nanoTime() - start).isLessThan(TimeUnit.MILLISECONDS.toNanos(500));
+
+            release.countDown();
+            for (var future : pending) {
+                assertThat(future.get(5, TimeUnit.SECONDS).status()).isEqualTo(200);
+            }
+        }
+    }
+
+    @Test
+    void busyDownstream_isReportedAs503WithRetryAfter() {
+        var wrapped = new GithubException("Failed to fetch repo tree: busy",
+                new GithubException("Failed to fetch branch details: busy", new DownstreamBusyException("github", 3)));
+
+        var response = new ExceptionHandler().handleGithubException(wrapped);
+
+        assertThat(response.getStatusCode().value()).isEqualTo(503);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        assertThat(new ExceptionHandler().handleGithubException(new GithubException("boom")).getStatusCode().value())
+                .isEqualTo(500);
+    }
+
+    private static void awaitInFlight(AdaptiveLimiter limiter, int calls) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.inFlight() < calls) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("review calls never saturated the bulkhead");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static Request request(String path) {
+        return Request.create(Request.HttpMethod.GET, "http://downstream" + path, Map.of(), null,
+                StandardCharsets.UTF_8, null);
+    }
+
+    private static Request.Options options() {
+        return new Request.Options();
+    }
+
+    private static Response ok(Request request) {
+        return Response.builder().status(200).request(request).headers(Map.of())
+                .body("{}", StandardCharsets.UTF_8).build();
+    }
+}
@@ -0,0 +1,176 @@
+package com.damian.coderover.service.impl;
+
+import com.damian.coderover.entity.EmailOutboxEntry;
+import com.damian.coderover.entity.EmailOutboxEntry.Status;
+import com.damian.coderover.repository.EmailOutboxRepo;
+import com.damian.coderover.util.SmtpTransportPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxDispatcherTest {
+
+    @Mock EmailOutboxRepo emailOutboxRepo;
+    @Mock SmtpTransportPool smtpTransportPool;
+
+    SimpleMeterRegistry meterRegistry;
+    ExecutorService executor;
+    EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(2);
+        dispatcher = new EmailOutboxDispatcher(emailOutboxRepo, smtpTransportPool,
+                TransactionOperations.withoutTransaction(), meterRegistry, executor);
+        ReflectionTestUtils.setField(dispatcher, "smtpUsername", "bot@example.com");
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 10);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffInitial", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(dispatcher, "backoffMax", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(dispatcher, "lease", Duration.ofMinutes(5));
+        dispatcher.init();
+        lenient().when(smtpTransportPool.newMessage(anyString()))
+                .thenAnswer(invocation -> new MimeMessage(Session.getInstance(new Properties())));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void dispatch_sendsClaimedBatchAndRecordsMetrics() throws Exception {
+        var entry = pending("dev@example.com");
+        when(emailOutboxRepo.findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(eq(Status.PENDING), any(), any()))
+                .thenReturn(List.of(entry));
+        when(emailOutboxRepo.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(emailOutboxRepo.countByStatus(Status.PENDING)).thenReturn(3L);
+
+        dispatcher.dispatch();
+
+        var sent = ArgumentCaptor.forClass(Message.class);
+        verify(smtpTransportPool).send(sent.capture());
+        assertThat(sent.getValue().getAllRecipients()[0].toString()).isEqualTo("dev@example.com");
+        verify(smtpTransportPool).newMessage("<key-1@coderover>");
+        assertThat(entry.getStatus()).isEqualTo(Status.SENT);
+        assertThat(entry.getSentAt()).isNotNull();
+        assertThat(meterRegistry.get("email.outbox.depth").gauge().value()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("email.outbox.send").tag("outcome", "sent").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void deliver_failure_backsOffThenGivesUp() throws Exception {
+        doThrow(new MessagingException("421 try later")).when(smtpTransportPool).send(any());
+        var entry = pending("dev@example.com");
+
+        var before = Instant.now();
+        dispatcher.deliver(entry);
+        assertThat(entry.getStatus()).isEqualTo(Status.PENDING);
+        assertThat(entry.getAttempts()).isEqualTo(1);
+        assertThat(entry.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(30));
+        assertThat(entry.getLastError()).isEqualTo("421 try later");
+
+        dispatcher.deliver(entry);
+        dispatcher.deliver(entry);
+        assertThat(entry.getStatus()).isEqualTo(Status.FAILED);
+        assertThat(meterRegistry.get("email.outbox.send").tag("outcome", "retry").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("email.outbox.send").tag("outcome", "failed").timer().count()).isEqualTo(1);
+        verify(emailOutboxRepo, times(3)).save(entry);
+    }
+
+    @Test
+    void smtpTransportPool_failedSendOnNewConnection_closesItWithoutRetrying() throws Exception {
+        var session = mock(Session.class);
+        var fresh = mock(Transport.class);
+        when(session.getTransport("smtp")).thenReturn(fresh);
+        doThrow(new MessagingException("550 mailbox unavailable")).when(fresh).sendMessage(any(), any());
+        var pool = newPool(session);
+
+        assertThrows(MessagingException.class, () -> pool.send(message()));
+        verify(session, times(1)).getTransport("smtp");
+        verify(fresh).close();
+    }
+
+    @Test
+    void smtpTransportPool_failedSendOnPooledConnection_retriesOnceAndClosesBoth() throws Exception {
+        var session = mock(Session.class);
+        var first = mock(Transport.class);
+        var second = mock(Transport.class);
+        var third = mock(Transport.class);
+        when(session.getTransport("smtp")).thenReturn(first, second, third);
+        when(first.isConnected()).thenReturn(true);
+        doNothing().doThrow(new MessagingException("421 closing connection")).when(first).sendMessage(any(), any());
+        doThrow(new MessagingException("421 try later")).when(second).sendMessage(any(), any());
+        var pool = newPool(session);
+
+        pool.send(message());
+        var e = assertThrows(MessagingException.class, () -> pool.send(message()));
+        pool.send(message());
+
+        assertThat(e).hasMessage("421 try later");
+        verify(first).close();
+        verify(second).close();
+        verify(third, never()).close();
+        verify(third).sendMessage(any(), any());
+    }
+
+    private static SmtpTransportPool newPool(Session session) {
+        var pool = new SmtpTransportPool();
+        ReflectionTestUtils.setField(pool, "session", session);
+        ReflectionTestUtils.setField(pool, "idle", new ArrayBlockingQueue<Transport>(2));
+        return pool;
+    }
+
+    private static MimeMessage message() throws MessagingException {
+        var message = new MimeMessage(Session.getInstance(new Properties()));
+        message.setRecipients(Message.RecipientType.TO, "dev@example.com");
+        return message;
+    }
+
+    @Test
+    void backoff_doublesUpToMax() {
+        assertThat(dispatcher.backoff(1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(dispatcher.backoff(2)).isEqualTo(Duration.ofSeconds(60));
+        assertThat(dispatcher.backoff(3)).isEqualTo(Duration.ofMinutes(2));
+        assertThat(dispatcher.backoff(40)).isEqualTo(Duration.ofMinutes(2));
+    }
+
+    private static EmailOutboxEntry pending(String recipient) {
+        return EmailOutboxEntry.builder()
+                .id(1L)
+                .idempotencyKey("key-1")
+                .recipient(recipient)
+                .subject("Your CodeRover Report.")
+                .body("Hello")
+                .status(Status.PENDING)
+                .nextAttemptAt(Instant.now())
+                .build();
+    }
+}
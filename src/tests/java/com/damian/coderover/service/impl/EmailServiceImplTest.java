@@ -0,0 +1,75 @@
+package com.damian.coderover.service.impl;
+
+import com.damian.coderover.dto.ReportEmailDTO;
+import com.damian.coderover.entity.EmailOutboxEntry;
+import com.damian.coderover.repository.EmailOutboxRepo;
+import com.damian.coderover.util.JwtUtils;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmailServiceImplTest {
+
+    @Mock JwtUtils jwtUtils;
+    @Mock HttpServletRequest request;
+    @Mock EmailOutboxRepo emailOutboxRepo;
+    @Mock Claims claims;
+
+    @InjectMocks EmailServiceImpl service;
+
+    final ReportEmailDTO report = new ReportEmailDTO(new String[]{"NPE"}, null, null);
+
+    @BeforeEach
+    void setup() {
+        when(request.getCookies()).thenReturn(new Cookie[]{new Cookie("access_token", "jwt")});
+        when(jwtUtils.claimsFor(request, "jwt")).thenReturn(claims);
+        when(claims.get("email", String.class)).thenReturn("dev@example.com");
+    }
+
+    @Test
+    void sendReport_writesPendingOutboxEntryAndReturnsAccepted() {
+        when(emailOutboxRepo.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+
+        var response = service.sendReport(report, "report-42");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        var saved = ArgumentCaptor.forClass(EmailOutboxEntry.class);
+        verify(emailOutboxRepo).save(saved.capture());
+        assertThat(saved.getValue().getRecipient()).isEqualTo("dev@example.com");
+        assertThat(saved.getValue().getStatus()).isEqualTo(EmailOutboxEntry.Status.PENDING);
+        assertThat(saved.getValue().getBody()).contains("  - NPE");
+        assertThat(saved.getValue().getIdempotencyKey()).hasSize(64);
+    }
+
+    @Test
+    void sendReport_repeatedIdempotencyKey_isNotQueuedTwice() {
+        when(emailOutboxRepo.findByIdempotencyKey(anyString()))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new EmailOutboxEntry()));
+
+        service.sendReport(report, "report-42");
+        var second = service.sendReport(report, "report-42");
+
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        verify(emailOutboxRepo, times(1)).save(any());
+        var keys = ArgumentCaptor.forClass(String.class);
+        verify(emailOutboxRepo, times(2)).findByIdempotencyKey(keys.capture());
+        assertThat(keys.getAllValues().get(0)).isEqualTo(keys.getAllValues().get(1));
+    }
+}
@@ -0,0 +1,150 @@
+package com.damian.coderover.service.impl;
+
+import com.damian.coderover.dto.RepoDTO;
+import com.damian.coderover.exception.DownstreamBusyException;
+import com.damian.coderover.feign.GithubClient;
+import com.damian.coderover.feign.RateLimitAwareClient;
+import com.damian.coderover.util.BlobCache;
+import com.damian.coderover.util.GithubRateBudget;
+import com.damian.coderover.util.RepoSnapshotStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.damian.coderover.util.GithubRateBudget.Priority;
+import feign.Request;
+import feign.Response;
+import feign.Util;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GithubRateBudgetTest {
+
+    private static final String TOKEN = "Bearer tok";
+
+    private GithubRateBudget budget;
+
+    @BeforeEach
+    void setup() {
+        budget = new GithubRateBudget();
+        ReflectionTestUtils.setField(budget, "bulkReserve", 200);
+        ReflectionTestUtils.setField(budget, "maxWait", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(budget, "maxTokens", 100L);
+        budget.init();
+    }
+
+    @Test
+    void bulkCalls_leaveReserveForInteractiveCalls() throws Exception {
+        var resetInOneMinute = System.currentTimeMillis() / 1000 + 60;
+        budget.update(TOKEN, "core", 5000, 150, resetInOneMinute);
+
+        budget.acquire(TOKEN);
+        assertThatThrownBy(() -> GithubRateBudget.callWith(Priority.BULK, () -> {
+            try {
+                budget.acquire(TOKEN);
+                return null;
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        })).isInstanceOfSatisfying(DownstreamBusyException.class,
+                e -> assertThat(e.getRetryAfterSeconds()).isBetween(55L, 61L));
+        assertThat(GithubRateBudget.currentPriority()).isEqualTo(Priority.INTERACTIVE);
+    }
+
+    @Test
+    void repoListing_holdsBackRemainingPagesAtTheBulkReserve() throws Exception {
+        var resetInOneMinute = System.currentTimeMillis() / 1000 + 60;
+        budget.update(TOKEN, "core", 5000, 150, resetInOneMinute);
+        var priorityByPage = new ConcurrentHashMap<Integer, Priority>();
+        var githubClient = mock(GithubClient.class);
+        // Stands in for RateLimitAwareClient, which acquires the budget before every GitHub call.
+        when(githubClient.getUserReposPage(eq(TOKEN), eq(100), anyInt())).thenAnswer(invocation -> {
+            int page = invocation.getArgument(2);
+            priorityByPage.put(page, GithubRateBudget.currentPriority());
+            budget.acquire(TOKEN);
+            var link = "<https://api.github.com/user/repos?per_page=100&page=3>; rel=\"last\"";
+            return ResponseEntity.ok().header("Link", link).body(List.of(
+                    new RepoDTO("repo" + page, "o/repo" + page, "http://repo", false, "Java", null, 0, "2025-01-01")));
+        });
+        var pool = Executors.newFixedThreadPool(2);
+        try {
+            var service = new GithubServiceImpl(githubClient, mock(BlobCache.class), mock(RepoSnapshotStore.class), pool);
+            ReflectionTestUtils.setField(service, "maxRepoPages", 50);
+            ReflectionTestUtils.setField(service, "repoCacheTtl", Duration.ofMinutes(1));
+            ReflectionTestUtils.setField(service, "repoCacheMaxEntries", 10L);
+            ReflectionTestUtils.setField(service, "treeCacheMaxEntries", 10L);
+            ReflectionTestUtils.setField(service, "accessCacheMaxEntries", 10L);
+            service.init();
+
+            var out = new ByteArrayOutputStream();
+            service.streamAllJavaRepos("tok").getBody().writeTo(out);
+
+            var json = new ObjectMapper().readTree(out.toByteArray());
+            assertThat(json.path("data").findValuesAsText("name")).containsExactly("repo1");
+            assertThat(json.path("truncated").asBoolean()).isTrue();
+            assertThat(priorityByPage.get(1)).isEqualTo(Priority.INTERACTIVE);
+            assertThat(priorityByPage.get(2)).isEqualTo(Priority.BULK);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void secondaryRateLimit_isWaitedOutAndRetriedOnce() throws Exception {
+        var calls = new AtomicInteger();
+        var client = new RateLimitAwareClient((request, options) -> calls.incrementAndGet() == 1
+                ? response(request, 403, Map.of("Retry-After", List.of("1")), "You have exceeded a secondary rate limit")
+                : response(request, 200, rateHeaders(4999), "{}"), budget);
+
+        var start = System.nanoTime();
+        var response = client.execute(request(), new Request.Options());
+
+        assertThat(response.status()).isEqualTo(200);
+        assertThat(calls).hasValue(2);
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(900).toNanos());
+    }
+
+    @Test
+    void forbiddenWithoutRateLimit_isPassedThroughWithBody() throws Exception {
+        var client = new RateLimitAwareClient(
+                (request, options) -> response(request, 403, rateHeaders(4000), "Resource not accessible"), budget);
+
+        var response = client.execute(request(), new Request.Options());
+
+        assertThat(response.status()).isEqualTo(403);
+        assertThat(Util.toString(response.body().asReader(StandardCharsets.UTF_8))).isEqualTo("Resource not accessible");
+    }
+
+    private static Map<String, Collection<String>> rateHeaders(int remaining) {
+        return Map.of("X-RateLimit-Limit", List.of("5000"),
+                "X-RateLimit-Remaining", List.of(String.valueOf(remaining)),
+                "X-RateLimit-Reset", List.of(String.valueOf(System.currentTimeMillis() / 1000 + 3600)),
+                "X-RateLimit-Resource", List.of("core"));
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.GET, "https://api.github.com/user/repos",
+                Map.of("Authorization", List.of(TOKEN)), null, StandardCharsets.UTF_8, null);
+    }
+
+    private static Response response(Request request, int status, Map<String, Collection<String>> headers, String body) {
+        return Response.builder().status(status).request(request).headers(headers)
+                .body(body, StandardCharsets.UTF_8).build();
+    }
+}
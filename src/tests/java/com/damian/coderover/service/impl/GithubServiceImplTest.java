@@ -4,21 +4,48 @@ import com.damian.coderover.dto.BranchResponse;
 import com.damian.coderover.dto.BranchResponse.Commit;
 import com.damian.coderover.dto.BranchResponse.Commit.CommitDetail;
 import com.damian.coderover.dto.BranchResponse.Commit.CommitDetail.Tree;
+import com.damian.coderover.dto.GitBlobResponse;
 import com.damian.coderover.dto.RepoDTO;
 import com.damian.coderover.dto.GitTreeResponse;
+import com.damian.coderover.dto.TreePageDTO;
+import com.damian.coderover.exception.DownstreamBusyException;
 import com.damian.coderover.exception.GithubException;
+import com.damian.coderover.feign.ConditionalRequestClient;
 import com.damian.coderover.feign.GithubClient;
 import com.damian.coderover.response.Response;
+import com.damian.coderover.util.BlobCache;
+import com.damian.coderover.util.ConditionalRequestStore;
+import com.damian.coderover.util.RepoSnapshotStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -31,6 +58,12 @@ class GithubServiceImplTest {
     @Mock
     GithubClient githubClient;
 
+    @Mock
+    BlobCache blobCache;
+
+    @Mock
+    RepoSnapshotStore snapshotStore;
+
     @InjectMocks
     GithubServiceImpl service;
 
@@ -68,10 +101,10 @@ class GithubServiceImplTest {
     @Test
     void fetchRepoTree_success() {
         // spy to stub fetchBranchDetails
-        var spy = Mockito.spy(new GithubServiceImpl(githubClient));
+        var spy = Mockito.spy(new GithubServiceImpl(githubClient, blobCache, snapshotStore, null));
         var tree = new Tree("sha-tree");
         var commitDetail = new CommitDetail(tree);
-        var commit = new Commit(commitDetail);
+        var commit = new Commit("commit-sha", commitDetail);
         var branchResponse = new BranchResponse("main", commit);
         var response = new Response("ok", branchResponse, HttpStatus.OK.value());
         doReturn(ResponseEntity.ok(response)).when(spy).fetchBranchDetails(anyString(), anyString(), anyString(), anyString());
@@ -87,9 +120,9 @@ class GithubServiceImplTest {
 
     @Test
     void fetchRepoTree_missingSha_throws() {
-        var spy = Mockito.spy(new GithubServiceImpl(githubClient));
+        var spy = Mockito.spy(new GithubServiceImpl(githubClient, blobCache, snapshotStore, null));
         var commitDetail = new CommitDetail(null);
-        var commit = new Commit(commitDetail);
+        var commit = new Commit("commit-sha", commitDetail);
         var branchResponse = new BranchResponse("main", commit);
         var response = new Response("ok", branchResponse, HttpStatus.OK.value());
         doReturn(ResponseEntity.ok(response)).when(spy).fetchBranchDetails(anyString(), anyString(), anyString(), anyString());
@@ -98,6 +131,459 @@ class GithubServiceImplTest {
         assertThat(ex.getMessage()).contains("Tree SHA missing");
     }
 
+    @Test
+    void copyTree_streamsFilteredEntriesInResponseEnvelope() throws Exception {
+        var github = """
+                {"sha":"root","url":"https://api.github.com/x","tree":[
+                  {"path":"src/main/A.java","mode":"100644","type":"blob","sha":"a1","size":10,"url":"u"},
+                  {"path":"src/main/b.txt","mode":"100644","type":"blob","sha":"b1","size":3,"url":"u"},
+                  {"path":"docs/C.java","mode":"100644","type":"blob","sha":"c1","size":7,"url":"u"}
+                ],"truncated":false}""";
+        var out = new ByteArrayOutputStream();
+
+        service.copyTree(new ByteArrayInputStream(github.getBytes(StandardCharsets.UTF_8)), out,
+                item -> item.path().startsWith("src/") && item.path().endsWith(".java"));
+
+        var body = new ObjectMapper().readValue(out.toByteArray(), Response.class);
+        assertThat(body.statusCode()).isEqualTo(200);
+        assertThat(body.message()).contains("Repo tree fetched");
+        assertThat(body.data()).isEqualTo(Map.of("sha", "root", "truncated", false,
+                "tree", List.of(Map.of("path", "src/main/A.java", "type", "blob", "sha", "a1"))));
+    }
+
+    @Test
+    void streamRepoTree_upstreamError_throwsBeforeStreaming() {
+        var spy = Mockito.spy(new GithubServiceImpl(githubClient, blobCache, snapshotStore, null));
+        var branchResponse = new BranchResponse("main", new Commit("commit-sha", new CommitDetail(new Tree("sha-tree"))));
+        doReturn(ResponseEntity.ok(new Response("ok", branchResponse, 200)))
+                .when(spy).fetchBranchDetails(anyString(), anyString(), anyString(), anyString());
+        var upstream = feign.Response.builder()
+                .status(404)
+                .request(feign.Request.create(feign.Request.HttpMethod.GET, "/t", Map.of(), null, StandardCharsets.UTF_8, null))
+                .body("{}", StandardCharsets.UTF_8)
+                .build();
+        when(githubClient.streamRepoTree(anyString(), anyString(), anyString(), eq("sha-tree"))).thenReturn(upstream);
+
+        var ex = assertThrows(GithubException.class, () -> spy.streamRepoTree("tok", "o", "r", "main", null, "java"));
+        assertThat(ex.getMessage()).contains("404");
+    }
+
+    @Test
+    void fetchTreeLevel_pagesOneLevelAndCachesSubtree() {
+        ReflectionTestUtils.setField(service, "treeCacheMaxEntries", 100L);
+        ReflectionTestUtils.setField(service, "repoCacheMaxEntries", 10L);
+        ReflectionTestUtils.setField(service, "accessCacheMaxEntries", 10L);
+        service.init();
+        when(githubClient.getTreeLevel("Bearer tok", "o", "r", "sub-sha")).thenReturn(new GitTreeResponse("sub-sha", List.of(
+                new GitTreeResponse.TreeItem("A.java", "blob", "a1"),
+                new GitTreeResponse.TreeItem("B.java", "blob", "b1"),
+                new GitTreeResponse.TreeItem("util", "tree", "t1"))));
+
+        var first = (TreePageDTO) service.fetchTreeLevel("tok", "o", "r", "main", "sub-sha", "src", null, 2)
+                .getBody().data();
+        var second = (TreePageDTO) service.fetchTreeLevel("tok", "o", "r", "main", "sub-sha", "src", first.nextCursor(), 2)
+                .getBody().data();
+
+        assertThat(first.total()).isEqualTo(3);
+        assertThat(first.tree()).extracting(GitTreeResponse.TreeItem::path).containsExactly("src/A.java", "src/B.java");
+        assertThat(second.tree()).containsExactly(new GitTreeResponse.TreeItem("src/util", "tree", "t1"));
+        assertThat(second.nextCursor()).isNull();
+        verify(githubClient, times(1)).getTreeLevel(anyString(), anyString(), anyString(), anyString());
+        verify(githubClient, never()).getBranchDetails(anyString(), anyString(), anyString(), anyString());
+        verify(githubClient, times(1)).getRepository("Bearer tok", "o", "r");
+    }
+
+    @Test
+    void fetchTreeLevel_cachedLevel_notServedToTokenWithoutRepoAccess() {
+        ReflectionTestUtils.setField(service, "treeCacheMaxEntries", 100L);
+        ReflectionTestUtils.setField(service, "repoCacheMaxEntries", 10L);
+        ReflectionTestUtils.setField(service, "accessCacheMaxEntries", 10L);
+        service.init();
+        when(githubClient.getTreeLevel("Bearer owner-token", "o", "private", "tree-sha"))
+                .thenReturn(new GitTreeResponse("tree-sha", List.of(new GitTreeResponse.TreeItem("Secret.java", "blob", "s1"))));
+        service.fetchTreeLevel("owner-token", "o", "private", "main", "tree-sha", null, null, 10);
+        when(githubClient.getRepository("Bearer other-token", "o", "private")).thenThrow(new RuntimeException("404 Not Found"));
+
+        assertThrows(GithubException.class,
+                () -> service.fetchTreeLevel("other-token", "o", "private", "main", "tree-sha", null, null, 10));
+        verify(githubClient, times(1)).getTreeLevel(anyString(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void fetchTreeLevel_invalidCursor_throws() {
+        var ex = assertThrows(GithubException.class,
+                () -> service.fetchTreeLevel("tok", "o", "r", "main", "sha", null, "abc", 10));
+        assertThat(ex.getMessage()).contains("Invalid tree cursor");
+        verifyNoInteractions(githubClient);
+    }
+
+    @Test
+    void streamAllJavaRepos_fetchesRemainingPagesInParallelAndCaches() throws Exception {
+        var pool = Executors.newFixedThreadPool(4);
+        try {
+            var allRepos = newRepoListingService(pool, 50);
+            stubThreeRepoPages();
+            when(githubClient.getUserReposPage("Bearer tok", 100, 2)).thenReturn(ResponseEntity.ok(List.of(repo("c", "Java"))));
+            when(githubClient.getUserReposPage("Bearer tok", 100, 3)).thenReturn(ResponseEntity.ok(List.of(repo("d", "java"))));
+
+            var first = new ByteArrayOutputStream();
+            allRepos.streamAllJavaRepos("tok").getBody().writeTo(first);
+            var second = new ByteArrayOutputStream();
+            allRepos.streamAllJavaRepos("tok").getBody().writeTo(second);
+
+            var json = new ObjectMapper().readTree(first.toByteArray());
+            assertThat(json.path("data").findValuesAsText("name")).containsExactly("a", "c", "d");
+            assertThat(json.path("truncated").asBoolean()).isFalse();
+            assertThat(json.path("statusCode").asInt()).isEqualTo(200);
+            assertThat(second.toString(StandardCharsets.UTF_8)).isEqualTo(first.toString(StandardCharsets.UTF_8));
+            verify(githubClient, times(3)).getUserReposPage(anyString(), anyInt(), anyInt());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void streamAllJavaRepos_failedPage_endsListAsTruncatedAndIsNotCached() throws Exception {
+        var pool = Executors.newFixedThreadPool(4);
+        try {
+            var allRepos = newRepoListingService(pool, 50);
+            stubThreeRepoPages();
+            when(githubClient.getUserReposPage("Bearer tok", 100, 2)).thenThrow(new RuntimeException("502 Bad Gateway"));
+            lenient().when(githubClient.getUserReposPage("Bearer tok", 100, 3))
+                    .thenReturn(ResponseEntity.ok(List.of(repo("d", "java"))));
+
+            var first = new ByteArrayOutputStream();
+            allRepos.streamAllJavaRepos("tok").getBody().writeTo(first);
+            allRepos.streamAllJavaRepos("tok").getBody().writeTo(new ByteArrayOutputStream());
+
+            var json = new ObjectMapper().readTree(first.toByteArray());
+            assertThat(json.path("data").findValuesAsText("name")).containsExactly("a");
+            assertThat(json.path("truncated").asBoolean()).isTrue();
+            verify(githubClient, times(2)).getUserReposPage("Bearer tok", 100, 1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void streamAllJavaRepos_pageHeldBackByRateBudget_endsListAsTruncated() throws Exception {
+        var pool = Executors.newFixedThreadPool(4);
+        try {
+            var allRepos = newRepoListingService(pool, 50);
+            stubThreeRepoPages();
+            when(githubClient.getUserReposPage("Bearer tok", 100, 2)).thenThrow(new DownstreamBusyException("github", 60));
+            lenient().when(githubClient.getUserReposPage("Bearer tok", 100, 3))
+                    .thenThrow(new DownstreamBusyException("github", 60));
+
+            var response = allRepos.streamAllJavaRepos("tok");
+            var first = new ByteArrayOutputStream();
+            response.getBody().writeTo(first);
+            allRepos.streamAllJavaRepos("tok").getBody().writeTo(new ByteArrayOutputStream());
+
+            var json = new ObjectMapper().readTree(first.toByteArray());
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(json.path("data").findValuesAsText("name")).containsExactly("a");
+            assertThat(json.path("truncated").asBoolean()).isTrue();
+            assertThat(json.path("statusCode").asInt()).isEqualTo(200);
+            verify(githubClient, times(2)).getUserReposPage("Bearer tok", 100, 1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void streamAllJavaRepos_overMaxPages_isTruncatedAndNotCached() throws Exception {
+        var pool = Executors.newFixedThreadPool(4);
+        try {
+            var allRepos = newRepoListingService(pool, 2);
+            stubThreeRepoPages();
+            when(githubClient.getUserReposPage("Bearer tok", 100, 2)).thenReturn(ResponseEntity.ok(List.of(repo("c", "Java"))));
+
+            var first = new ByteArrayOutputStream();
+            allRepos.streamAllJavaRepos("tok").getBody().writeTo(first);
+            allRepos.streamAllJavaRepos("tok").getBody().writeTo(new ByteArrayOutputStream());
+
+            var json = new ObjectMapper().readTree(first.toByteArray());
+            assertThat(json.path("data").findValuesAsText("name")).containsExactly("a", "c");
+            assertThat(json.path("truncated").asBoolean()).isTrue();
+            verify(githubClient, times(2)).getUserReposPage("Bearer tok", 100, 1);
+            verify(githubClient, never()).getUserReposPage("Bearer tok", 100, 3);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private GithubServiceImpl newRepoListingService(ExecutorService pool, int maxRepoPages) {
+        var allRepos = new GithubServiceImpl(githubClient, blobCache, snapshotStore, pool);
+        ReflectionTestUtils.setField(allRepos, "maxRepoPages", maxRepoPages);
+        ReflectionTestUtils.setField(allRepos, "repoCacheTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(allRepos, "repoCacheMaxEntries", 10L);
+        ReflectionTestUtils.setField(allRepos, "treeCacheMaxEntries", 10L);
+        ReflectionTestUtils.setField(allRepos, "accessCacheMaxEntries", 10L);
+        allRepos.init();
+        return allRepos;
+    }
+
+    private void stubThreeRepoPages() {
+        var link = "<https://api.github.com/user/repos?per_page=100&page=2>; rel=\"next\", "
+                + "<https://api.github.com/user/repos?per_page=100&page=3>; rel=\"last\"";
+        when(githubClient.getUserReposPage("Bearer tok", 100, 1)).thenReturn(ResponseEntity.ok()
+                .header("Link", link).body(List.of(repo("a", "Java"), repo("b", "Kotlin"))));
+    }
+
+    private static RepoDTO repo(String name, String language) {
+        return new RepoDTO(name, "o/" + name, "http://repo/" + name, false, language, null, 0, "2025-01-01");
+    }
+
+    @Test
+    void fetchRepoSnapshot_downloadsZipballOnceAndServesBlobsLocally(@TempDir Path dir) throws Exception {
+        var commitSha = "a".repeat(40);
+        var store = newSnapshotStore(dir);
+        var spy = Mockito.spy(newCachedService(blobCache, store));
+        doReturn(ResponseEntity.ok(new Response("ok", new BranchResponse("main",
+                new Commit(commitSha, new CommitDetail(new Tree("tree-sha")))), 200)))
+                .when(spy).fetchBranchDetails("tok", "o", "r", "main");
+        when(githubClient.downloadZipball("Bearer tok", "o", "r", commitSha)).thenReturn(zipball(
+                Map.of("o-r-aaaaaaa/", "", "o-r-aaaaaaa/src/Hello.txt", "hello")));
+
+        var first = (GitTreeResponse) spy.fetchRepoSnapshot("tok", "o", "r", "main").getBody().data();
+        var second = (GitTreeResponse) spy.fetchRepoSnapshot("tok", "o", "r", "main").getBody().data();
+        var blob = (GitBlobResponse) spy.fetchFileBlob("tok", "o", "r", "b6fc4c620b67d95f953a5c1c1230aaab5db5a1b0")
+                .getBody().data();
+
+        // The SHA is git's own blob id for "hello".
+        assertThat(first.tree()).containsExactly(
+                new GitTreeResponse.TreeItem("src/Hello.txt", "blob", "b6fc4c620b67d95f953a5c1c1230aaab5db5a1b0"));
+        assertThat(second).isEqualTo(first);
+        assertThat(blob.encoding()).isEqualTo("base64");
+        assertThat(new String(Base64.getDecoder().decode(blob.content()), StandardCharsets.UTF_8)).isEqualTo("hello");
+        verify(githubClient, times(1)).downloadZipball(anyString(), anyString(), anyString(), anyString());
+        verify(githubClient, never()).getFileBlob(anyString(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void snapshotStore_rejectsEntriesEscapingTheSnapshot(@TempDir Path dir) throws Exception {
+        var store = newSnapshotStore(dir);
+        var archive = zipball(Map.of("o-r-aaaaaaa/../../evil.txt", "x")).body().asInputStream();
+
+        assertThrows(IOException.class, () -> store.extract("o", "r", "b".repeat(40), archive));
+        assertThat(store.get("o", "r", "b".repeat(40))).isEmpty();
+        assertThat(dir.resolve("evil.txt")).doesNotExist();
+        try (var left = Files.list(dir.resolve("snapshots"))) {
+            assertThat(left).isEmpty();
+        }
+    }
+
+    @Test
+    void snapshotStore_servesBlobsOnlyForTheRepositoryOfTheSnapshot(@TempDir Path dir) throws Exception {
+        var store = newSnapshotStore(dir);
+        var commitSha = "c".repeat(40);
+        store.extract("o", "private", commitSha,
+                zipball(Map.of("o-private-ccccccc/Secret.txt", "hello")).body().asInputStream());
+        var helloSha = "b6fc4c620b67d95f953a5c1c1230aaab5db5a1b0";
+
+        assertThat(store.readBlob("O", "Private", helloSha)).hasValueSatisfying(
+                content -> assertThat(new String(content, StandardCharsets.UTF_8)).isEqualTo("hello"));
+        assertThat(store.readBlob("o", "public", helloSha)).isEmpty();
+        assertThat(store.get("o", "public", commitSha)).isEmpty();
+        if (dir.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(dir.resolve("snapshots"))))
+                    .isEqualTo("rwx------");
+        }
+    }
+
+    @Test
+    void snapshotStore_secondExtractionOfSameCommit_reusesTheFirst(@TempDir Path dir) throws Exception {
+        var store = newSnapshotStore(dir);
+        var commitSha = "d".repeat(40);
+        var first = store.extract("o", "r", commitSha,
+                zipball(Map.of("o-r-ddddddd/Hello.txt", "hello")).body().asInputStream());
+
+        var second = store.extract("o", "r", commitSha,
+                zipball(Map.of("o-r-ddddddd/Hello.txt", "hello")).body().asInputStream());
+
+        assertThat(second.files()).isEqualTo(first.files());
+        assertThat(second.tree()).isEqualTo(first.tree());
+        try (var left = Files.list(dir.resolve("snapshots"))) {
+            assertThat(left).containsExactly(first.files().getParent());
+        }
+    }
+
+    @Test
+    void snapshotStore_restart_countsSnapshotsOfEarlierRunTowardsTheLimit(@TempDir Path dir) throws Exception {
+        var earlier = newSnapshotStore(dir);
+        ReflectionTestUtils.setField(earlier, "maxSnapshots", 3);
+        var snapshotDirs = new ArrayList<Path>();
+        for (var commit : List.of("a", "b", "c")) {
+            var snapshot = earlier.extract("o", "r", commit.repeat(40),
+                    zipball(Map.of("o-r-" + commit + "/Hello.txt", "hello")).body().asInputStream());
+            snapshotDirs.add(snapshot.files().getParent());
+            Files.setLastModifiedTime(snapshot.files().getParent(), FileTime.fromMillis(1000L * snapshotDirs.size()));
+        }
+
+        var restarted = newSnapshotStore(dir);
+        assertThat(snapshotDirs.get(0)).doesNotExist();
+        var latest = restarted.extract("o", "r", "e".repeat(40),
+                zipball(Map.of("o-r-eeeeeee/Hello.txt", "hello")).body().asInputStream());
+
+        assertThat(snapshotDirs.get(1)).doesNotExist();
+        try (var left = Files.list(dir.resolve("snapshots"))) {
+            assertThat(left).containsExactlyInAnyOrder(snapshotDirs.get(2), latest.files().getParent());
+        }
+    }
+
+    private static RepoSnapshotStore newSnapshotStore(Path dir) throws Exception {
+        var store = new RepoSnapshotStore();
+        ReflectionTestUtils.setField(store, "snapshotDir", dir.resolve("snapshots").toString());
+        ReflectionTestUtils.setField(store, "maxSnapshots", 2);
+        ReflectionTestUtils.setField(store, "maxExtractedBytes", 1024L);
+        store.init();
+        return store;
+    }
+
+    private static feign.Response zipball(Map<String, String> entries) throws Exception {
+        var bytes = new ByteArrayOutputStream();
+        try (var zip = new ZipOutputStream(bytes)) {
+            for (var entry : new TreeMap<>(entries).entrySet()) {
+                zip.putNextEntry(new ZipEntry(entry.getKey()));
+                zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        var request = feign.Request.create(feign.Request.HttpMethod.GET, "https://api.github.com/repos/o/r/zipball",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+        return feign.Response.builder().status(200).request(request).headers(Map.of()).body(bytes.toByteArray()).build();
+    }
+
+    @Test
+    void conditionalClient_notModified_servesStoredBodyWithValidators() throws Exception {
+        var store = new ConditionalRequestStore();
+        ReflectionTestUtils.setField(store, "maxBytes", 1024L);
+        store.init();
+        var sent = new ArrayList<feign.Request>();
+        feign.Client github = (request, options) -> {
+            sent.add(request);
+            var builder = feign.Response.builder().request(request).headers(Map.of("x-ratelimit-remaining", List.of("4999")));
+            return request.headers().containsKey("If-None-Match")
+                    ? builder.status(304).build()
+                    : builder.status(200).headers(Map.of("ETag", List.of("\"v1\""))).body("[{\"name\":\"a\"}]", StandardCharsets.UTF_8).build();
+        };
+        var client = new ConditionalRequestClient(github, store);
+        var request = feign.Request.create(feign.Request.HttpMethod.GET, "https://api.github.com/user/repos",
+                Map.of("Authorization", List.of("Bearer tok")), null, StandardCharsets.UTF_8, null);
+
+        var first = client.execute(request, new feign.Request.Options());
+        var second = client.execute(request, new feign.Request.Options());
+
+        assertThat(sent.get(0).headers()).doesNotContainKey("If-None-Match");
+        assertThat(sent.get(1).headers().get("If-None-Match")).containsExactly("\"v1\"");
+        assertThat(second.status()).isEqualTo(200);
+        assertThat(feign.Util.toString(second.body().asReader(StandardCharsets.UTF_8)))
+                .isEqualTo(feign.Util.toString(first.body().asReader(StandardCharsets.UTF_8)))
+                .isEqualTo("[{\"name\":\"a\"}]");
+    }
+
+    @Test
+    void conditionalClient_otherTokenOrGitObjects_notConditional() throws Exception {
+        var store = new ConditionalRequestStore();
+        ReflectionTestUtils.setField(store, "maxBytes", 1024L);
+        store.init();
+        var sent = new ArrayList<feign.Request>();
+        feign.Client github = (request, options) -> {
+            sent.add(request);
+            return feign.Response.builder().request(request).status(200)
+                    .headers(Map.of("ETag", List.of("\"v1\""))).body("{}", StandardCharsets.UTF_8).build();
+        };
+        var client = new ConditionalRequestClient(github, store);
+
+        for (var url : List.of("https://api.github.com/user/repos", "https://api.github.com/repos/o/r/git/trees/s",
+                "https://api.github.com/repos/o/r/git/trees/s")) {
+            client.execute(feign.Request.create(feign.Request.HttpMethod.GET, url, Map.of("Authorization", List.of("Bearer a")),
+                    null, StandardCharsets.UTF_8, null), new feign.Request.Options());
+        }
+        client.execute(feign.Request.create(feign.Request.HttpMethod.GET, "https://api.github.com/user/repos",
+                Map.of("Authorization", List.of("Bearer b")), null, StandardCharsets.UTF_8, null), new feign.Request.Options());
+
+        assertThat(sent).allSatisfy(request -> assertThat(request.headers()).doesNotContainKey("If-None-Match"));
+    }
+
+    @Test
+    void fetchFileBlob_repeatSha_servedFromCache() throws Exception {
+        var sha = "a".repeat(40);
+        var cachedService = newCachedService(newBlobCache(null));
+        when(githubClient.getFileBlob(anyString(), anyString(), anyString(), eq(sha)))
+                .thenReturn(new GitBlobResponse("Y2xhc3MgQSB7fQ==", "base64"));
+
+        cachedService.fetchFileBlob("tok", "owner", "repo", sha);
+        var second = cachedService.fetchFileBlob("tok", "owner", "repo", sha);
+
+        assertThat(second.getBody()).isNotNull();
+        assertThat(((GitBlobResponse) second.getBody().data()).content()).isEqualTo("Y2xhc3MgQSB7fQ==");
+        verify(githubClient, times(1)).getFileBlob(anyString(), anyString(), anyString(), eq(sha));
+        verify(githubClient, times(1)).getRepository("Bearer tok", "owner", "repo");
+    }
+
+    @Test
+    void fetchFileBlob_cachedBlob_notServedWithoutRepoAccessOrForAnotherRepo() throws Exception {
+        var sha = "c".repeat(40);
+        var cachedService = newCachedService(newBlobCache(null));
+        when(githubClient.getFileBlob(anyString(), anyString(), anyString(), eq(sha)))
+                .thenReturn(new GitBlobResponse("c2VjcmV0", "base64"));
+        cachedService.fetchFileBlob("owner-token", "victim", "private", sha);
+        when(githubClient.getRepository("Bearer other-token", "victim", "private"))
+                .thenThrow(new RuntimeException("404 Not Found"));
+
+        assertThrows(GithubException.class, () -> cachedService.fetchFileBlob("other-token", "victim", "private", sha));
+        cachedService.fetchFileBlob("other-token", "attacker", "public", sha);
+
+        verify(githubClient).getFileBlob("Bearer other-token", "attacker", "public", sha);
+    }
+
+    @Test
+    void blobCache_diskTier_survivesNewInstance(@TempDir Path dir) throws Exception {
+        var sha = "b".repeat(40);
+        newBlobCache(dir).put("o", "r", sha, new GitBlobResponse("Ym9keQ==", "base64"));
+
+        var reloaded = newBlobCache(dir);
+        assertThat(reloaded.get("o", "other", sha)).isEmpty();
+        var blob = reloaded.get("O", "r", sha);
+
+        assertThat(blob).isPresent();
+        assertThat(blob.get().content()).isEqualTo("Ym9keQ==");
+        assertThat(blob.get().encoding()).isEqualTo("base64");
+        assertThat(reloaded.stats().diskHits()).isEqualTo(1);
+    }
+
+    @Test
+    void blobCache_rejectsNonShaKeys() throws Exception {
+        var cache = newBlobCache(null);
+        cache.put("o", "r", "../../etc/passwd", new GitBlobResponse("x", "utf-8"));
+        assertThat(cache.get("o", "r", "../../etc/passwd")).isEmpty();
+        assertThat(cache.stats().entries()).isZero();
+    }
+
+    private GithubServiceImpl newCachedService(BlobCache cache) {
+        return newCachedService(cache, snapshotStore);
+    }
+
+    private GithubServiceImpl newCachedService(BlobCache cache, RepoSnapshotStore store) {
+        var cachedService = new GithubServiceImpl(githubClient, cache, store, null);
+        ReflectionTestUtils.setField(cachedService, "treeCacheMaxEntries", 100L);
+        ReflectionTestUtils.setField(cachedService, "repoCacheMaxEntries", 10L);
+        ReflectionTestUtils.setField(cachedService, "accessCacheMaxEntries", 10L);
+        ReflectionTestUtils.setField(cachedService, "accessCacheTtl", Duration.ofSeconds(30));
+        cachedService.init();
+        return cachedService;
+    }
+
+    private static BlobCache newBlobCache(Path dir) throws Exception {
+        var cache = new BlobCache();
+        ReflectionTestUtils.setField(cache, "maxBytes", 1024L);
+        ReflectionTestUtils.setField(cache, "diskDir", dir == null ? "" : dir.toString());
+        cache.init();
+        return cache;
+    }
+
     @Test
     void emptyTest(){
 
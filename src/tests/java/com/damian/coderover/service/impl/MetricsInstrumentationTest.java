@@ -0,0 +1,83 @@
+package com.damian.coderover.service.impl;
+
+import com.damian.coderover.config.MetricsConfig;
+import com.damian.coderover.filter.JwtAuthenticationFilter;
+import com.damian.coderover.util.BlobCache;
+import com.damian.coderover.util.BoundedCache;
+import com.damian.coderover.util.ConditionalRequestStore;
+import com.damian.coderover.util.JwtUtils;
+import com.damian.coderover.util.ReviewCache;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MetricsInstrumentationTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void jwtUtils_timesVerificationsButNotCacheHits() throws Exception {
+        var secret = "0123456789abcdef0123456789abcdef";
+        var jwtUtils = new JwtUtils(registry);
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", secret);
+        ReflectionTestUtils.setField(jwtUtils, "maxCachedTokens", 10L);
+        jwtUtils.init();
+        var good = Jwts.builder().subject("dev").expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8))).compact();
+        var filter = new JwtAuthenticationFilter(jwtUtils);
+
+        filter.doFilter(bearer(good), new MockHttpServletResponse(), new MockFilterChain());
+        SecurityContextHolder.clearContext();
+        filter.doFilter(bearer(good), new MockHttpServletResponse(), new MockFilterChain());
+        var rejected = new MockHttpServletResponse();
+        filter.doFilter(bearer("not.a.jwt"), rejected, new MockFilterChain());
+
+        assertThat(rejected.getStatus()).isEqualTo(HttpServletResponse.SC_UNAUTHORIZED);
+        assertThat(registry.get("jwt.parse").tag("outcome", "valid").timer().count()).isEqualTo(1);
+        assertThat(registry.get("jwt.parse").tag("outcome", "invalid").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void cacheMetrics_publishHitsMissesAndSize() {
+        var reviewCache = mock(ReviewCache.class);
+        when(reviewCache.stats()).thenReturn(new BoundedCache.Stats(7, 3, 1, 5, 5));
+        var blobCache = mock(BlobCache.class);
+        when(blobCache.stats()).thenReturn(new BlobCache.Stats(2, 4, 0, 1, 2, 2048));
+        var conditionalRequestStore = mock(ConditionalRequestStore.class);
+        when(conditionalRequestStore.stats()).thenReturn(new BoundedCache.Stats(0, 0, 0, 0, 0));
+
+        new MetricsConfig().cacheMetrics(reviewCache, blobCache, conditionalRequestStore).bindTo(registry);
+
+        assertThat(registry.get("cache.gets").tags("cache", "review", "result", "hit").functionCounter().count())
+                .isEqualTo(7);
+        assertThat(registry.get("cache.gets").tags("cache", "review", "result", "miss").functionCounter().count())
+                .isEqualTo(3);
+        assertThat(registry.get("cache.weight").tag("cache", "blob").gauge().value()).isEqualTo(2048);
+    }
+
+    private static MockHttpServletRequest bearer(String token) {
+        var request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
@@ -0,0 +1,126 @@
+package com.damian.coderover.service.impl;
+
+import com.damian.coderover.dto.FileReviewDTO;
+import com.damian.coderover.dto.GitBlobResponse;
+import com.damian.coderover.dto.GitTreeResponse;
+import com.damian.coderover.dto.GitTreeResponse.TreeItem;
+import com.damian.coderover.exception.ReviewException;
+import com.damian.coderover.response.Response;
+import com.damian.coderover.service.GithubService;
+import com.damian.coderover.service.ReviewService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RepoReviewServiceImplTest {
+
+    @Mock GithubService githubService;
+    @Mock ReviewService reviewService;
+
+    ExecutorService executor;
+    RepoReviewServiceImpl service;
+
+    @BeforeEach
+    void setup() {
+        executor = Executors.newFixedThreadPool(2);
+        service = new RepoReviewServiceImpl(githubService, reviewService, executor);
+        ReflectionTestUtils.setField(service, "maxFiles", 10);
+        ReflectionTestUtils.setField(service, "timeoutMs", 5000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void reviewFiles_decodesBlobsAndReportsEachFile() throws Exception {
+        when(githubService.fetchFileBlob(anyString(), anyString(), anyString(), anyString()))
+                .thenReturn(ResponseEntity.ok(new Response("ok", new GitBlobResponse("Y2xhc3MgQSB7\nfQ==", "base64"), 200)));
+        when(reviewService.requestCodeReview("class A {}", false))
+                .thenReturn(ResponseEntity.ok(new Response("ok", "looks fine", 200)));
+        var results = new ConcurrentLinkedQueue<FileReviewDTO>();
+
+        var summary = service.reviewFiles("tok", "o", "r", List.of(
+                new TreeItem("A.java", "blob", "s1"),
+                new TreeItem("B.java", "blob", "s2")), 0, results::add).get(5, TimeUnit.SECONDS);
+
+        assertThat(summary.total()).isEqualTo(2);
+        assertThat(summary.reviewed()).isEqualTo(2);
+        assertThat(results).extracting(FileReviewDTO::review).containsOnly("looks fine");
+    }
+
+    @Test
+    void reviewFiles_failedFileDoesNotAbortOthers() throws Exception {
+        when(githubService.fetchFileBlob(anyString(), anyString(), anyString(), anyString()))
+                .thenReturn(ResponseEntity.ok(new Response("ok", new GitBlobResponse("code", "utf-8"), 200)));
+        when(reviewService.requestCodeReview(anyString(), eq(false)))
+                .thenThrow(new ReviewException("boom"))
+                .thenReturn(ResponseEntity.ok(new Response("ok", "fine", 200)));
+        var results = new ConcurrentLinkedQueue<FileReviewDTO>();
+
+        var summary = service.reviewFiles("tok", "o", "r", List.of(
+                new TreeItem("A.java", "blob", "s1"),
+                new TreeItem("B.java", "blob", "s2")), 0, results::add).get(5, TimeUnit.SECONDS);
+
+        assertThat(summary.reviewed()).isEqualTo(1);
+        assertThat(summary.failed()).isEqualTo(1);
+        assertThat(results).extracting(FileReviewDTO::error).containsOnlyOnce("boom");
+    }
+
+    @Test
+    void reviewRepository_onlyReviewsJavaBlobs() {
+        var tree = new GitTreeResponse("root", List.of(
+                new TreeItem("src", "tree", "t1"),
+                new TreeItem("README.md", "blob", "b1"),
+                new TreeItem("src/Main.java", "blob", "b2")));
+        when(githubService.fetchRepoTree("tok", "o", "r", "main"))
+                .thenReturn(ResponseEntity.ok(new Response("ok", tree, 200)));
+        when(githubService.fetchFileBlob(anyString(), anyString(), anyString(), anyString()))
+                .thenReturn(ResponseEntity.ok(new Response("ok", new GitBlobResponse("code", "utf-8"), 200)));
+        when(reviewService.requestCodeReview(anyString(), eq(false)))
+                .thenReturn(ResponseEntity.ok(new Response("ok", "fine", 200)));
+
+        service.reviewRepository("tok", "o", "r", "main");
+
+        verify(githubService, timeout(2000)).fetchFileBlob("tok", "o", "r", "b2");
+        verify(githubService, never()).fetchFileBlob("tok", "o", "r", "b1");
+        verify(githubService, never()).fetchFileBlob("tok", "o", "r", "t1");
+    }
+
+    @Test
+    void resolveJavaFiles_overTheCap_reportsSkippedFiles() throws Exception {
+        ReflectionTestUtils.setField(service, "maxFiles", 2);
+        var tree = new GitTreeResponse("root", List.of(
+                new TreeItem("A.java", "blob", "s1"),
+                new TreeItem("README.md", "blob", "b1"),
+                new TreeItem("B.java", "blob", "s2"),
+                new TreeItem("C.java", "blob", "s3")));
+        when(githubService.fetchRepoTree("tok", "o", "r", "main"))
+                .thenReturn(ResponseEntity.ok(new Response("ok", tree, 200)));
+
+        var javaFiles = service.resolveJavaFiles("tok", "o", "r", "main");
+
+        assertThat(javaFiles.files()).extracting(TreeItem::path).containsExactly("A.java", "B.java");
+        assertThat(javaFiles.skipped()).isEqualTo(1);
+        var summary = service.reviewFiles("tok", "o", "r", List.of(), javaFiles.skipped(), result -> {
+        }).get(5, TimeUnit.SECONDS);
+        assertThat(summary.skipped()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,186 @@
+package com.damian.coderover.service.impl;
+
+import com.damian.coderover.dto.CodeT5_V1_DTO;
+import com.damian.coderover.exception.ReviewException;
+import com.damian.coderover.feign.CodeT5ReviewClient;
+import com.damian.coderover.util.ReviewCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Runs CodeT5 reviews against a local stub model server that, like a GPU-backed server, handles one request at a
+ * time and pays a fixed cost per forward pass whether it holds one snippet or a batch. The throughput comparison is
+ * tagged {@code load}: run it with {@code mvn -Pload test}.
+ */
+class ReviewServiceImplCodeT5BatchTest {
+
+    private static final int CONCURRENT_REQUESTS = 32;
+    private static final long FORWARD_PASS_MS = 40;
+    private static final long PER_ITEM_MS = 1;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger singleCalls = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Integer> batchSizes = new ConcurrentLinkedQueue<>();
+    private ExecutorService modelServerExecutor;
+    private HttpServer modelServer;
+    private CodeT5ReviewClient client;
+
+    @BeforeEach
+    void startModelServer() throws IOException {
+        modelServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        modelServerExecutor = Executors.newSingleThreadExecutor();
+        modelServer.setExecutor(modelServerExecutor);
+        modelServer.createContext("/predict/v1/batch", exchange -> {
+            List<String> codes = objectMapper.readValue(exchange.getRequestBody(), BatchRequest.class).codes();
+            batchSizes.add(codes.size());
+            sleep(FORWARD_PASS_MS + PER_ITEM_MS * codes.size());
+            respond(exchange, Map.of("predictions", codes.stream().map(code -> "review of " + code).toList()));
+        });
+        modelServer.createContext("/predict/v1", exchange -> {
+            var code = (String) objectMapper.readValue(exchange.getRequestBody(), Map.class).get("code");
+            singleCalls.incrementAndGet();
+            sleep(FORWARD_PASS_MS + PER_ITEM_MS);
+            respond(exchange, Map.of("prediction", "review of " + code));
+        });
+        modelServer.start();
+
+        var converters = new HttpMessageConverters(new MappingJackson2HttpMessageConverter());
+        client = Feign.builder()
+                .contract(new SpringMvcContract())
+                .encoder(new SpringEncoder(() -> converters))
+                .decoder(new ResponseEntityDecoder(new SpringDecoder(() -> converters)))
+                .target(CodeT5ReviewClient.class, "http://localhost:" + modelServer.getAddress().getPort());
+    }
+
+    @AfterEach
+    void stopModelServer() {
+        modelServer.stop(0);
+        modelServerExecutor.shutdownNow();
+    }
+
+    @Test
+    void batching_fansResultsOutToCallers() throws Exception {
+        var batched = service(true, 30_000);
+        try {
+            run(batched, "batched");
+
+            assertThat(singleCalls.get()).isZero();
+            assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(CONCURRENT_REQUESTS);
+        } finally {
+            batched.close();
+        }
+    }
+
+    @Test
+    void batching_slowModel_failsTheRequestAfterTimeout() {
+        var batched = service(true, 5);
+        try {
+            assertThatThrownBy(() -> batched.requestCodeReviewFromCodeT5V1("class Slow {}"))
+                    .isInstanceOf(ReviewException.class)
+                    .hasCauseInstanceOf(TimeoutException.class);
+        } finally {
+            batched.close();
+        }
+    }
+
+    @Test
+    @Tag("load")
+    void batching_multipliesThroughput() throws Exception {
+        var unbatched = service(false, 30_000);
+        var batched = service(true, 30_000);
+        try {
+            var unbatchedSeconds = run(unbatched, "single");
+            var batchedSeconds = run(batched, "batched");
+
+            assertThat(singleCalls.get()).isEqualTo(CONCURRENT_REQUESTS);
+            assertThat(batchSizes.size()).isLessThan(CONCURRENT_REQUESTS / 4);
+            assertThat(unbatchedSeconds).as("unbatched vs batched seconds").isGreaterThan(batchedSeconds * 3);
+        } finally {
+            batched.close();
+        }
+    }
+
+    private ReviewServiceImpl service(boolean batching, long timeoutMs) {
+        var service = new ReviewServiceImpl(client, null, objectMapper,
+                mock(ReviewCache.class, withSettings().stubOnly()), new SimpleMeterRegistry(), null, null);
+        ReflectionTestUtils.setField(service, "codeT5BatchEnabled", batching);
+        ReflectionTestUtils.setField(service, "codeT5BatchMaxSize", 16);
+        ReflectionTestUtils.setField(service, "codeT5BatchMaxWaitMs", 10L);
+        ReflectionTestUtils.setField(service, "codeT5BatchMaxConcurrent", 1);
+        ReflectionTestUtils.setField(service, "codeT5BatchTimeoutMs", timeoutMs);
+        service.init();
+        return service;
+    }
+
+    /**
+     * Fires the requests concurrently, checks every caller got the prediction for its own snippet and returns the
+     * elapsed wall time in seconds.
+     */
+    private double run(ReviewServiceImpl service, String label) throws Exception {
+        try (var pool = Executors.newFixedThreadPool(CONCURRENT_REQUESTS)) {
+            var start = System.nanoTime();
+            var futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                var code = "class " + label + i + " {}";
+                futures.add(pool.submit(() ->
+                        ((CodeT5_V1_DTO) service.requestCodeReviewFromCodeT5V1(code).getBody().data()).getPrediction()));
+            }
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                assertThat(futures.get(i).get(10, TimeUnit.SECONDS)).isEqualTo("review of class " + label + i + " {}");
+            }
+            return (System.nanoTime() - start) / 1e9;
+        }
+    }
+
+    private void respond(HttpExchange exchange, Object body) throws IOException {
+        var bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (var out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record BatchRequest(List<String> codes) {
+    }
+}
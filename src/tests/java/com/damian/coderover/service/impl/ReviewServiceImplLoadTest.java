@@ -0,0 +1,80 @@
+package com.damian.coderover.service.impl;
+
+import com.damian.coderover.dto.ReviewResponseDTO;
+import com.damian.coderover.feign.ReviewClient;
+import com.damian.coderover.util.ReviewCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Fires 1,000 concurrent reviews against a review backend that takes 500 ms per call, once on a pool shaped
+ * like Tomcat's default 200 platform threads and once with a virtual thread per request. This compares the two
+ * threading models around {@link ReviewServiceImpl} only; it starts no application context, so it does not cover
+ * the {@code spring.threads.virtual.enabled} wiring of Tomcat or the executors in {@code ExecutorConfig}.
+ * Tagged {@code load}: run it with {@code mvn -Pload test}.
+ */
+@Tag("load")
+class ReviewServiceImplLoadTest {
+
+    private static final int CONCURRENT_REQUESTS = 1_000;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final Duration BACKEND_LATENCY = Duration.ofMillis(500);
+
+    @Test
+    void virtualThreads_sustainHigherThroughputForSlowReviews() throws Exception {
+        var reviewClient = mock(ReviewClient.class, withSettings().stubOnly());
+        when(reviewClient.getCodeReview(anyString(), any())).thenAnswer(invocation -> {
+            Thread.sleep(BACKEND_LATENCY);
+            return ResponseEntity.ok(new ReviewResponseDTO());
+        });
+        var service = new ReviewServiceImpl(null, reviewClient, new ObjectMapper(),
+                mock(ReviewCache.class, withSettings().stubOnly()), new SimpleMeterRegistry(), null, null);
+        ReflectionTestUtils.setField(service, "model", "gpt-5");
+        ReflectionTestUtils.setField(service, "reviewAuthToken", "secret");
+        ReflectionTestUtils.setField(service, "reviewPrompt", "Please review:");
+
+        double platform;
+        try (var pool = Executors.newFixedThreadPool(TOMCAT_MAX_THREADS)) {
+            platform = throughput(service, pool);
+        }
+        double virtual;
+        try (var pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            virtual = throughput(service, pool);
+        }
+
+        // 200 platform threads need five 500 ms rounds; virtual threads finish in roughly one.
+        assertThat(virtual).as("virtual vs platform req/s").isGreaterThan(platform * 2);
+    }
+
+    private static double throughput(ReviewServiceImpl service, ExecutorService pool) throws Exception {
+        var start = System.nanoTime();
+        var futures = new ArrayList<Future<?>>(CONCURRENT_REQUESTS);
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            // Distinct code per request, so that identical in-flight reviews are not coalesced into one call.
+            var code = "class A" + i + " {}";
+            futures.add(pool.submit(() -> service.requestCodeReview(code, false)));
+        }
+        for (var future : futures) {
+            future.get();
+        }
+        var elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        return CONCURRENT_REQUESTS / elapsedSeconds;
+    }
+}
@@ -1,9 +1,19 @@
 package com.damian.coderover.service.impl;
 
+import com.damian.coderover.dto.BatchBuildReviewDTO;
+import com.damian.coderover.dto.BuildFileDTO;
 import com.damian.coderover.dto.CodeT5_V1_DTO;
+import com.damian.coderover.dto.FileVerdictDTO;
+import com.damian.coderover.dto.ReviewResponseDTO;
 import com.damian.coderover.exception.ReviewException;
 import com.damian.coderover.feign.CodeT5ReviewClient;
 import com.damian.coderover.feign.ReviewClient;
+import com.damian.coderover.response.Response;
+import com.damian.coderover.util.CodeChunker;
+import com.damian.coderover.util.ReviewCache;
+import com.damian.coderover.util.SingleFlight;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Request;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,18 +23,38 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ReviewServiceImplTest {
 
     @Mock ReviewClient reviewClient;
     @Mock CodeT5ReviewClient codeT5ReviewClient;
+    @Mock ReviewCache reviewCache;
 
     @InjectMocks ReviewServiceImpl service;
 
@@ -32,6 +62,9 @@ class ReviewServiceImplTest {
     void setup() {
         ReflectionTestUtils.setField(service, "reviewAuthToken", "secret");
         ReflectionTestUtils.setField(service, "reviewPrompt", "Please review:");
+        ReflectionTestUtils.setField(service, "buildPrompt", "Should this build be blocked?");
+        ReflectionTestUtils.setField(service, "model", "gpt-5");
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
     }
 
     @Test
@@ -56,4 +89,621 @@ class ReviewServiceImplTest {
         when(codeT5ReviewClient.getV1Review(any())).thenThrow(new RuntimeException("err"));
         assertThrows(ReviewException.class, () -> service.requestCodeReviewFromCodeT5V1("x"));
     }
+
+    @Test
+    void requestCodeReview_cacheHit_skipsReviewClient() {
+        var cachedReview = new ReviewResponseDTO();
+        cachedReview.setId("cached");
+        when(reviewCache.get(ReviewCache.key("gpt-5", "Please review:", "code"), ReviewResponseDTO.class))
+                .thenReturn(Optional.of(cachedReview));
+
+        var resp = service.requestCodeReview("code", false);
+
+        assertThat(resp.getBody()).isNotNull();
+        assertThat(resp.getBody().data()).isSameAs(cachedReview);
+        verifyNoInteractions(reviewClient);
+    }
+
+    @Test
+    void requestCodeReview_cacheMiss_storesResult() {
+        var review = new ReviewResponseDTO();
+        when(reviewClient.getCodeReview(anyString(), any())).thenReturn(ResponseEntity.ok(review));
+
+        service.requestCodeReview("code", true);
+
+        verify(reviewCache).put(ReviewCache.key("gpt-5", "Should this build be blocked?", "code"), "gpt-5", review);
+    }
+
+    @Test
+    void cacheKey_changesWithPromptModelAndCode() {
+        var base = ReviewCache.key("gpt-5", "prompt", "code");
+        assertThat(base).hasSize(64).isEqualTo(ReviewCache.key("gpt-5", "prompt", "code"));
+        assertThat(ReviewCache.key("gpt-5", "prompt v2", "code")).isNotEqualTo(base);
+        assertThat(ReviewCache.key("gpt-6", "prompt", "code")).isNotEqualTo(base);
+        assertThat(ReviewCache.key("gpt-5", "prompt", "code ")).isNotEqualTo(base);
+        assertThat(ReviewCache.key("gpt-5", "prompt\u0000", "code")).isNotEqualTo(ReviewCache.key("gpt-5", "prompt", "\u0000code"));
+    }
+
+    @Test
+    void relay_forwardsDeltasThenCompletedReview() throws Exception {
+        var upstream = sseResponse(200, """
+                event: response.created
+                data: {"type":"response.created"}
+
+                event: response.output_text.delta
+                data: {"type":"response.output_text.delta","delta":"Hel"}
+
+                event: response.output_text.delta
+                data: {"type":"response.output_text.delta","delta":"lo"}
+
+                event: response.completed
+                data: {"type":"response.completed","response":{"id":"r1","model":"gpt-5","output":[{"type":"message","content":[{"type":"output_text","text":"Hello"}]}]}}
+
+                """);
+        var emitter = new CapturingEmitter();
+
+        service.relay(upstream, emitter, "key");
+
+        assertThat(emitter.sent).hasSize(3);
+        assertThat(emitter.sent.subList(0, 2)).containsExactly(Map.of("text", "Hel"), Map.of("text", "lo"));
+        var complete = (Response) emitter.sent.get(2);
+        var review = (ReviewResponseDTO) complete.data();
+        assertThat(review.getId()).isEqualTo("r1");
+        assertThat(review.getOutputs().getFirst().getContents().getFirst().getText()).isEqualTo("Hello");
+        verify(reviewCache).put("key", "gpt-5", review);
+    }
+
+    @Test
+    void streamTask_clientGone_closesUpstreamAndStopsRelaying() throws Exception {
+        var body = new BlockingBody("data: {\"type\":\"response.output_text.delta\",\"delta\":\"Hel\"}\n\n");
+        when(reviewClient.streamCodeReview(anyString(), any())).thenReturn(feign.Response.builder()
+                .status(200)
+                .request(Request.create(Request.HttpMethod.POST, "http://review/v1/responses", Map.of(), null,
+                        StandardCharsets.UTF_8, null))
+                .headers(Map.of())
+                .body(body, null)
+                .build());
+        var emitter = new CapturingEmitter();
+        var executor = Executors.newSingleThreadExecutor();
+
+        try {
+            var relaying = executor.submit(service.streamTask(emitter, Map.of(), "key"));
+            await(() -> !emitter.sent.isEmpty());
+            emitter.completion.run();
+
+            relaying.get(5, TimeUnit.SECONDS);
+            assertThat(body.closed.getCount()).isZero();
+            assertThat(emitter.sent).containsExactly(Map.of("text", "Hel"));
+            verifyNoInteractions(reviewCache);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void relay_upstreamErrorStatus_throws() {
+        var upstream = sseResponse(500, "");
+        assertThrows(ReviewException.class, () -> service.relay(upstream, new CapturingEmitter(), "key"));
+    }
+
+    @Test
+    void relay_streamEndsWithoutCompletion_throws() {
+        var upstream = sseResponse(200, "data: {\"type\":\"response.output_text.delta\",\"delta\":\"x\"}\n\n");
+        assertThrows(ReviewException.class, () -> service.relay(upstream, new CapturingEmitter(), "key"));
+    }
+
+    @Test
+    void codeChunker_splitsOnMemberBoundariesIgnoringBracesInLiterals() {
+        var code = """
+                class A {
+                    void a() {
+                        var s = "}}}";
+                        // }
+                    }
+
+                    void b() {
+                        char c = '{';
+                    }
+                }
+                """;
+
+        var chunks = CodeChunker.split(code, 90);
+
+        assertThat(String.join("", chunks)).isEqualTo(code);
+        assertThat(chunks).hasSize(2);
+        assertThat(chunks.get(0)).endsWith("// }\n    }\n");
+        assertThat(chunks.get(1)).contains("void b()").endsWith("}\n}\n");
+    }
+
+    @Test
+    void requestCodeReview_largeFile_reviewsChunksConcurrentlyAndMerges() {
+        ReflectionTestUtils.setField(service, "maxChunkChars", 60);
+        var executor = Executors.newFixedThreadPool(2);
+        ReflectionTestUtils.setField(service, "reviewChunkExecutor", executor);
+        when(reviewCache.get(anyString(), eq(ReviewResponseDTO.class))).thenReturn(Optional.empty());
+        when(reviewClient.getCodeReview(anyString(), any())).thenAnswer(invocation -> {
+            Map<String, Object> body = invocation.getArgument(1);
+            var input = body.get("input").toString();
+            var finding = input.contains("a()") ? "- a() ignores its result" : "- b() swallows exceptions";
+            return ResponseEntity.ok(review("## Defects\n" + finding + "\n## Style\n- Missing Javadoc"));
+        });
+        var code = "class A {\n  void a() {\n    run();\n  }\n  void b() {\n    try { x(); } catch (E e) {}\n  }\n}\n";
+
+        try {
+            var resp = service.requestCodeReview(code, false);
+
+            verify(reviewClient, times(2)).getCodeReview(anyString(), any());
+            var merged = (ReviewResponseDTO) resp.getBody().data();
+            assertThat(merged.getOutputs().getFirst().getContents().getFirst().getText()).isEqualTo("""
+                    ## Defects
+                    - a() ignores its result
+                    - b() swallows exceptions
+
+                    ## Style
+                    - Missing Javadoc""");
+            verify(reviewCache).put(eq(ReviewCache.key("gpt-5", "Please review:", code)), eq("gpt-5"), same(merged));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void requestCodeReview_largeBuildFile_blocksWhenAnyChunkBlocks() {
+        ReflectionTestUtils.setField(service, "maxChunkChars", 60);
+        var executor = Executors.newFixedThreadPool(2);
+        ReflectionTestUtils.setField(service, "reviewChunkExecutor", executor);
+        when(reviewCache.get(anyString(), eq(ReviewResponseDTO.class))).thenReturn(Optional.empty());
+        when(reviewClient.getCodeReview(anyString(), any())).thenAnswer(invocation -> {
+            Map<String, Object> body = invocation.getArgument(1);
+            return ResponseEntity.ok(body.get("input").toString().contains("a()")
+                    ? review("false\n- a() is fine")
+                    : review("true\n- b() swallows exceptions"));
+        });
+        var code = "class A {\n  void a() {\n    run();\n  }\n  void b() {\n    try { x(); } catch (E e) {}\n  }\n}\n";
+
+        try {
+            var merged = (ReviewResponseDTO) service.requestCodeReview(code, true).getBody().data();
+
+            assertThat(merged.getOutputs().getFirst().getContents().getFirst().getText())
+                    .isEqualTo("true\n- a() is fine\n- b() swallows exceptions");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void mergeReviews_keepsCodeBlocksBlankLinesAndSwitchLabels() {
+        var first = """
+                ## Defects
+                - Missing break:
+                ```java
+                switch (x) {
+                    case A:
+                        a();
+                    default:
+                        b();
+                }
+                ```
+
+                Consider an enhanced switch.
+                """;
+        var second = """
+                ## Defects
+                - Same result read twice:
+                ```java
+                read();
+                ```
+                - Missing break:
+                ```java
+                switch (x) {
+                    case A:
+                        a();
+                    default:
+                        b();
+                }
+                ```
+                """;
+
+        var merged = ReviewServiceImpl.mergeReviews(List.of(review(first), review(second)));
+
+        assertThat(merged.getOutputs().getFirst().getContents().getFirst().getText()).isEqualTo("""
+                ## Defects
+                - Missing break:
+                ```java
+                switch (x) {
+                    case A:
+                        a();
+                    default:
+                        b();
+                }
+                ```
+
+                Consider an enhanced switch.
+                - Same result read twice:
+                ```java
+                read();
+                ```""");
+    }
+
+    @Test
+    void mergeVerdicts_falseChunkThenTrueChunk_blocks() {
+        var merged = ReviewServiceImpl.mergeVerdicts(List.of(review("false\n- fine"), review("true\n- System.exit")));
+
+        assertThat(merged.getOutputs().getFirst().getContents().getFirst().getText())
+                .isEqualTo("true\n- fine\n- System.exit");
+        assertThat(ReviewServiceImpl.mergeVerdicts(List.of(review("false"), review("False\n- ok")))
+                .getOutputs().getFirst().getContents().getFirst().getText()).isEqualTo("false\n- ok");
+    }
+
+    @Test
+    void requestCodeReview_concurrentIdenticalRequests_shareOneBackendCall() throws Exception {
+        var callStarted = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var result = review("- fine");
+        when(reviewCache.get(anyString(), eq(ReviewResponseDTO.class))).thenReturn(Optional.empty());
+        when(reviewClient.getCodeReview(anyString(), any())).thenAnswer(invocation -> {
+            callStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return ResponseEntity.ok(result);
+        });
+        var reviewCalls = (SingleFlight<?, ?>) ReflectionTestUtils.getField(service, "reviewCalls");
+
+        try (var pool = Executors.newFixedThreadPool(4)) {
+            var leader = pool.submit(() -> service.requestCodeReview("class A {}", false));
+            assertThat(callStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            var followers = List.of(
+                    pool.submit(() -> service.requestCodeReview("class A {}", false)),
+                    pool.submit(() -> service.requestCodeReview("class A {}", false)));
+            await(() -> reviewCalls.coalesced() == 2);
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS).getBody().data()).isSameAs(result);
+            for (var follower : followers) {
+                assertThat(follower.get(5, TimeUnit.SECONDS).getBody().data()).isSameAs(result);
+            }
+        }
+        verify(reviewClient, times(1)).getCodeReview(anyString(), any());
+        assertThat(reviewCalls.calls()).isEqualTo(1);
+    }
+
+    @Test
+    void requestCodeReview_coalescedCallersShareLeaderFailure() throws Exception {
+        var callStarted = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(reviewCache.get(anyString(), eq(ReviewResponseDTO.class))).thenReturn(Optional.empty());
+        when(reviewClient.getCodeReview(anyString(), any())).thenAnswer(invocation -> {
+            callStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            throw new RuntimeException("backend down");
+        });
+        var reviewCalls = (SingleFlight<?, ?>) ReflectionTestUtils.getField(service, "reviewCalls");
+
+        try (var pool = Executors.newFixedThreadPool(2)) {
+            var leader = pool.submit(() -> service.requestCodeReview("class A {}", false));
+            assertThat(callStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            var follower = pool.submit(() -> service.requestCodeReview("class A {}", false));
+            await(() -> reviewCalls.coalesced() == 1);
+            release.countDown();
+
+            for (var call : List.of(leader, follower)) {
+                var ex = assertThrows(ExecutionException.class, () -> call.get(5, TimeUnit.SECONDS));
+                assertThat(ex.getCause()).isInstanceOf(ReviewException.class).hasMessageContaining("backend down");
+            }
+        }
+        verify(reviewClient, times(1)).getCodeReview(anyString(), any());
+    }
+
+    @Test
+    void requestDiffReview_reviewsChangedHunksAndReusesUnchangedOnes() {
+        allowDiffs();
+        ReflectionTestUtils.setField(service, "diffPrompt", "Review this hunk:");
+        var executor = Executors.newFixedThreadPool(2);
+        ReflectionTestUtils.setField(service, "reviewChunkExecutor", executor);
+        var cache = new ConcurrentHashMap<String, ReviewResponseDTO>();
+        when(reviewCache.get(anyString(), eq(ReviewResponseDTO.class)))
+                .thenAnswer(invocation -> Optional.ofNullable(cache.get(invocation.<String>getArgument(0))));
+        doAnswer(invocation -> cache.put(invocation.getArgument(0), invocation.getArgument(2)))
+                .when(reviewCache).put(anyString(), anyString(), any());
+        var sent = new ConcurrentLinkedQueue<String>();
+        when(reviewClient.getCodeReview(anyString(), any())).thenAnswer(invocation -> {
+            Map<String, Object> body = invocation.getArgument(1);
+            sent.add(body.get("input").toString());
+            return ResponseEntity.ok(review("false\n## Findings\n- checked"));
+        });
+        var firstRun = """
+                diff --git a/src/A.java b/src/A.java
+                index 1111111..2222222 100644
+                --- a/src/A.java
+                +++ b/src/A.java
+                @@ -10,6 +10,7 @@ class A {
+                   void a() {
+                -    run();
+                +    run(true);
+                   }
+                @@ -40,4 +41,3 @@ class A {
+                   void b() {
+                -    legacy();
+                   }
+                diff --git a/src/B.java b/src/B.java
+                new file mode 100644
+                --- /dev/null
+                +++ b/src/B.java
+                @@ -0,0 +1,3 @@
+                +class B {
+                +  int x;
+                +}
+                """;
+        // Same A.java hunk further down the file; B.java changed.
+        var secondRun = firstRun.replace("@@ -10,6 +10,7 @@", "@@ -12,6 +12,7 @@").replace("int x;", "long x;");
+
+        try {
+            var first = service.requestDiffReview(firstRun);
+            var second = service.requestDiffReview(secondRun);
+
+            assertThat(((ReviewResponseDTO) first.getBody().data()).getOutputs().getFirst().getContents().getFirst()
+                    .getText()).isEqualTo("false\n## Findings\n- checked");
+            assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+            // Three hunks the first time, then only the changed B.java hunk.
+            assertThat(sent).hasSize(4);
+            assertThat(sent).allMatch(input -> input.contains("Review this hunk:\nShould this build be blocked?"));
+            assertThat(sent).filteredOn(input -> input.contains("-    legacy();")).hasSize(1);
+            assertThat(sent).filteredOn(input -> input.contains("File: src/A.java\nIn: class A {\n   void a() {")).hasSize(1);
+            assertThat(sent).filteredOn(input -> input.contains("+  long x;")).hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void requestDiffReview_blockingDeletionHunk_blocksTheBuild() {
+        allowDiffs();
+        ReflectionTestUtils.setField(service, "diffPrompt", "Review this hunk:");
+        var executor = Executors.newFixedThreadPool(2);
+        ReflectionTestUtils.setField(service, "reviewChunkExecutor", executor);
+        when(reviewCache.get(anyString(), eq(ReviewResponseDTO.class))).thenReturn(Optional.empty());
+        when(reviewClient.getCodeReview(anyString(), any())).thenAnswer(invocation -> {
+            Map<String, Object> body = invocation.getArgument(1);
+            return ResponseEntity.ok(body.get("input").toString().contains("-dead();")
+                    ? review("true\n## Build\n- dead() is still called")
+                    : review("false"));
+        });
+
+        try {
+            var resp = service.requestDiffReview("""
+                    --- a/A.java
+                    +++ b/A.java
+                    @@ -1,2 +1,2 @@
+                    -old();
+                    +fresh();
+                    @@ -20,2 +20 @@
+                    -dead();
+                     live();
+                    """);
+
+            assertThat(((ReviewResponseDTO) resp.getBody().data()).getOutputs().getFirst().getContents().getFirst()
+                    .getText()).isEqualTo("true\n## Build\n- dead() is still called");
+            verify(reviewClient, times(2)).getCodeReview(anyString(), any());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void requestDiffReview_oversizedDiff_isRefusedWithoutCallingModel() {
+        allowDiffs();
+        ReflectionTestUtils.setField(service, "maxDiffHunks", 1);
+        var twoHunks = "--- a/A.java\n+++ b/A.java\n@@ -1 +1 @@\n-a();\n+b();\n@@ -9 +9 @@\n-c();\n+d();\n";
+
+        var tooManyHunks = service.requestDiffReview(twoHunks);
+        ReflectionTestUtils.setField(service, "maxDiffChars", 10);
+        var tooLong = service.requestDiffReview(twoHunks);
+
+        assertThat(tooManyHunks.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        assertThat(tooLong.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        verifyNoInteractions(reviewClient);
+    }
+
+    private void allowDiffs() {
+        ReflectionTestUtils.setField(service, "maxChunkChars", 24000);
+        ReflectionTestUtils.setField(service, "maxDiffChars", 1_000_000);
+        ReflectionTestUtils.setField(service, "maxDiffHunks", 100);
+    }
+
+    @Test
+    void requestBatchBuildReview_packsSmallFilesAndRetriesUnansweredOnes() {
+        allowBatches();
+        ReflectionTestUtils.setField(service, "batchMaxTokens", 50);
+        ReflectionTestUtils.setField(service, "batchBuildPrompt", "Verdict per file:");
+        var executor = Executors.newFixedThreadPool(2);
+        ReflectionTestUtils.setField(service, "reviewChunkExecutor", executor);
+        when(reviewCache.get(anyString(), eq(FileVerdictDTO.class))).thenReturn(Optional.empty());
+        var requests = new ConcurrentLinkedQueue<List<String>>();
+        when(reviewClient.getCodeReview(anyString(), any())).thenAnswer(invocation -> {
+            Map<String, Object> body = invocation.getArgument(1);
+            var labels = Pattern.compile("### FILE: (\\S+)").matcher(body.get("input").toString())
+                    .results().map(match -> match.group(1)).toList();
+            requests.add(labels);
+            var answer = new StringBuilder();
+            for (var label : labels) {
+                if (label.equals("Skipped.java") && labels.size() > 1) {
+                    continue;
+                }
+                answer.append("### FILE: ").append(label).append("\n- looked at it\n**Verdict:** ")
+                        .append(label.equals("Bad.java") ? "BLOCK" : "ALLOW").append("\n\n");
+            }
+            return ResponseEntity.ok(review(answer.toString()));
+        });
+        var files = List.of(
+                new BuildFileDTO("Good.java", "class Good {}"),
+                new BuildFileDTO("Bad.java", "class Bad { void f() { System.exit(1); } }"),
+                new BuildFileDTO("Skipped.java", "class Skipped {}"),
+                new BuildFileDTO("Large.java", "class Large {\n" + "  int field;\n".repeat(20) + "}\n"));
+
+        try {
+            var result = (BatchBuildReviewDTO) service.requestBatchBuildReview(files).getBody().data();
+
+            assertThat(result.blocked()).isTrue();
+            assertThat(result.blockedFiles()).isEqualTo(1);
+            assertThat(result.failed()).isZero();
+            assertThat(result.files()).extracting(FileVerdictDTO::path)
+                    .containsExactly("Good.java", "Bad.java", "Skipped.java", "Large.java");
+            assertThat(result.files()).extracting(FileVerdictDTO::blocked).containsExactly(false, true, false, false);
+            assertThat(result.files().getFirst().review()).isEqualTo("- looked at it");
+            // One shared request for the small files, one for the large file, one retry for the file left out.
+            assertThat(requests).containsExactlyInAnyOrder(
+                    List.of("Bad.java", "Skipped.java", "Good.java"), List.of("Large.java"), List.of("Skipped.java"));
+            verify(reviewCache, times(4)).put(anyString(), eq("gpt-5"), any(FileVerdictDTO.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void requestBatchBuildReview_cachedVerdictsSkipModel() {
+        allowBatches();
+        var cached = new FileVerdictDTO("A.java", false, "fine", null);
+        when(reviewCache.get(anyString(), eq(FileVerdictDTO.class))).thenReturn(Optional.of(cached));
+
+        var result = (BatchBuildReviewDTO) service.requestBatchBuildReview(List.of(new BuildFileDTO("A.java", "class A {}")))
+                .getBody().data();
+
+        assertThat(result.blocked()).isFalse();
+        assertThat(result.files()).containsExactly(cached);
+        verifyNoInteractions(reviewClient);
+    }
+
+    @Test
+    void requestBatchBuildReview_failedPack_blocksTheBuild() {
+        allowBatches();
+        var executor = Executors.newFixedThreadPool(2);
+        ReflectionTestUtils.setField(service, "reviewChunkExecutor", executor);
+        when(reviewCache.get(anyString(), eq(FileVerdictDTO.class))).thenReturn(Optional.empty());
+        when(reviewClient.getCodeReview(anyString(), any())).thenThrow(new RuntimeException("backend down"));
+
+        try {
+            var result = (BatchBuildReviewDTO) service.requestBatchBuildReview(
+                    List.of(new BuildFileDTO("A.java", "class A {}"))).getBody().data();
+
+            assertThat(result.blocked()).isTrue();
+            assertThat(result.blockedFiles()).isZero();
+            assertThat(result.failed()).isEqualTo(1);
+            verify(reviewCache, never()).put(anyString(), anyString(), any(FileVerdictDTO.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void requestBatchBuildReview_oversizedBatch_isRefusedWithoutCallingModel() {
+        allowBatches();
+        ReflectionTestUtils.setField(service, "batchMaxFiles", 1);
+        var files = List.of(new BuildFileDTO("A.java", "class A {}"), new BuildFileDTO("B.java", "class B {}"));
+
+        var tooMany = service.requestBatchBuildReview(files);
+        ReflectionTestUtils.setField(service, "batchMaxFiles", 10);
+        ReflectionTestUtils.setField(service, "batchMaxChars", 15L);
+        var tooLong = service.requestBatchBuildReview(files);
+
+        assertThat(tooMany.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        assertThat(tooLong.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        verifyNoInteractions(reviewClient, reviewCache);
+    }
+
+    private void allowBatches() {
+        ReflectionTestUtils.setField(service, "maxChunkChars", 24000);
+        ReflectionTestUtils.setField(service, "batchMaxTokens", 8000);
+        ReflectionTestUtils.setField(service, "batchMaxFiles", 200);
+        ReflectionTestUtils.setField(service, "batchMaxChars", 2_000_000L);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private static ReviewResponseDTO review(String text) {
+        var content = new ReviewResponseDTO.Content();
+        content.setType("output_text");
+        content.setText(text);
+        var output = new ReviewResponseDTO.Output();
+        output.setType("message");
+        output.setContents(List.of(content));
+        var review = new ReviewResponseDTO();
+        review.setId("resp");
+        review.setOutputs(List.of(output));
+        return review;
+    }
+
+    private static feign.Response sseResponse(int status, String body) {
+        var request = Request.create(Request.HttpMethod.POST, "http://review/v1/responses", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+        return feign.Response.builder()
+                .status(status)
+                .request(request)
+                .headers(Map.of())
+                .body(body, StandardCharsets.UTF_8)
+                .build();
+    }
+
+    static class CapturingEmitter extends SseEmitter {
+        final List<Object> sent = new CopyOnWriteArrayList<>();
+        volatile Runnable completion;
+
+        @Override
+        public synchronized void onCompletion(Runnable callback) {
+            completion = callback;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            builder.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .filter(data -> !(data instanceof String text) || !text.startsWith("event:") && !text.startsWith("\n"))
+                    .forEach(sent::add);
+        }
+    }
+
+    /**
+     * An upstream body that hands out {@code first} and then blocks, like a generation still in progress, until it
+     * is closed.
+     */
+    static class BlockingBody extends InputStream {
+        final CountDownLatch closed = new CountDownLatch(1);
+        private final byte[] first;
+        private int position;
+
+        BlockingBody(String first) {
+            this.first = first.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int read() throws IOException {
+            var one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (position < first.length) {
+                var count = Math.min(length, first.length - position);
+                System.arraycopy(first, position, buffer, offset, count);
+                position += count;
+                return count;
+            }
+            try {
+                closed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Stream closed");
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+    }
 }
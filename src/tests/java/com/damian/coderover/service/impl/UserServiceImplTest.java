@@ -6,6 +6,11 @@ import com.damian.coderover.repository.UserRepo;
 import com.damian.coderover.response.Response;
 import com.damian.coderover.util.JwtUtils;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,11 +21,21 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -33,31 +48,48 @@ class UserServiceImplTest {
 
     @InjectMocks UserServiceImpl service;
 
+    final CountingTransactions transactions = new CountingTransactions();
+
     @BeforeEach
     void setup() {
         ReflectionTestUtils.setField(service, "DEFAULT_PROFILE_PIC", "http://default/pic.png");
+        ReflectionTestUtils.setField(service, "profileCacheMaxEntries", 100L);
+        ReflectionTestUtils.setField(service, "profileCacheTtl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(service, "writeBehindBatchSize", 2);
+        ReflectionTestUtils.setField(service, "writeBehindMaxAttempts", 5);
+        ReflectionTestUtils.setField(service, "transactionOperations", transactions);
+        service.init();
     }
 
     @Test
-    void persistUser_returnsExisting_whenEmailExists() {
-        var existing = User.builder().id("1").email("a@b.com").build();
-        when(userRepo.findByEmail("a@b.com")).thenReturn(Optional.of(existing));
+    void persistUser_existingEmail_isUpsertedInOneStatement() {
+        var incoming = User.builder().id("random").email("a@b.com").name("A").build();
 
-        var result = service.persistUser(User.builder().email("a@b.com").build());
-        assertThat(result).isSameAs(existing);
-        verify(userRepo, never()).save(any());
+        var result = service.persistUser(incoming);
+        assertThat(result).isSameAs(incoming);
+        verify(userRepo).upsert(incoming);
+        verifyNoMoreInteractions(userRepo);
     }
 
     @Test
     void persistUser_saves_whenEmailNotFound() {
-        var toSave = User.builder().email("c@d.com").build();
-        var saved = User.builder().id("2").email("c@d.com").build();
-        when(userRepo.findByEmail("c@d.com")).thenReturn(Optional.empty());
-        when(userRepo.save(toSave)).thenReturn(saved);
+        var toSave = User.builder().id("2").email("c@d.com").build();
 
         var result = service.persistUser(toSave);
-        assertThat(result).isSameAs(saved);
-        verify(userRepo).save(toSave);
+        assertThat(result).isSameAs(toSave);
+        verify(userRepo).upsert(toSave);
+        verifyNoMoreInteractions(userRepo);
+    }
+
+    @Test
+    void persistUser_returnsStoredIdWithoutWrite_whenCachedProfileUnchanged() {
+        poll("a@b.com", User.builder().id("1").email("a@b.com").build());
+
+        var result = service.persistUser(User.builder().id("random").email("a@b.com").build());
+        assertThat(result.getId()).isEqualTo("1");
+        verify(userRepo, never()).save(any());
+        verify(userRepo, never()).upsert(any());
+        verify(userRepo, times(1)).findByEmail("a@b.com");
     }
 
     @Test
@@ -89,7 +121,7 @@ class UserServiceImplTest {
         // claims
         Claims claims = mock(Claims.class);
         when(claims.get(eq("email"), eq(String.class))).thenReturn("found@user.com");
-        when(jwtUtils.parseJwt("jwt-token")).thenReturn(claims);
+        when(jwtUtils.claimsFor(request, "jwt-token")).thenReturn(claims);
         // user in repo with many nulls to test defaults
         var user = User.builder()
                 .id("u1").name("John").email("found@user.com").login("john")
@@ -127,13 +159,171 @@ class UserServiceImplTest {
         when(request.getCookies()).thenReturn(new Cookie[]{ new Cookie("access_token", "jwt-token") });
         Claims claims = mock(Claims.class);
         when(claims.get(eq("email"), eq(String.class))).thenReturn("none@user.com");
-        when(jwtUtils.parseJwt("jwt-token")).thenReturn(claims);
+        when(jwtUtils.claimsFor(request, "jwt-token")).thenReturn(claims);
         when(userRepo.findByEmail("none@user.com")).thenReturn(Optional.empty());
 
         var resp = service.fetchUserInfo();
         assertUnauthorized(resp);
     }
 
+    @Test
+    void fetchUserInfo_repeatedPolls_readDatabaseOnce() {
+        stubToken("poll@user.com");
+        when(userRepo.findByEmail("poll@user.com"))
+                .thenReturn(Optional.of(User.builder().id("u1").email("poll@user.com").build()));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(service.fetchUserInfo().getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+
+        verify(userRepo, times(1)).findByEmail("poll@user.com");
+    }
+
+    @Test
+    void persistUser_changedProfile_isServedAtOnceAndWrittenBehindInBatches() {
+        for (var email : List.of("c@d.com", "e@f.com", "a@b.com")) {
+            poll(email, User.builder().id("id-" + email).email(email).name("Old").build());
+        }
+
+        var updated = service.persistUser(User.builder().id("random").email("a@b.com").name("New").build());
+        service.persistUser(User.builder().email("c@d.com").name("New").build());
+        service.persistUser(User.builder().email("e@f.com").name("New").build());
+
+        assertThat(updated.getId()).isEqualTo("id-a@b.com");
+        verify(userRepo, never()).upsert(any());
+        assertThat(((UserDTO) service.fetchUserInfo().getBody().data()).getName()).isEqualTo("New");
+
+        service.flushProfileUpdates();
+
+        verify(userRepo, times(3)).upsert(any());
+        verify(userRepo, never()).save(any());
+        assertThat(transactions.count).hasValue(2);
+    }
+
+    @Test
+    void flushProfileUpdates_failedWrite_isRetriedOnNextFlush() {
+        poll("a@b.com", User.builder().id("1").email("a@b.com").name("Old").build());
+        service.persistUser(User.builder().email("a@b.com").name("New").build());
+        when(userRepo.upsert(any())).thenThrow(new RuntimeException("db down"))
+                .thenThrow(new RuntimeException("db down")).thenReturn(1);
+
+        service.flushProfileUpdates();
+        service.flushProfileUpdates();
+        service.flushProfileUpdates();
+
+        // The failed batch, the same update written alone, then the retry on the next flush.
+        verify(userRepo, times(3)).upsert(any());
+    }
+
+    @Test
+    void flushProfileUpdates_updateThatKeepsFailing_isDroppedAfterMaxAttempts() {
+        ReflectionTestUtils.setField(service, "writeBehindMaxAttempts", 2);
+        poll("a@b.com", User.builder().id("1").email("a@b.com").name("Old").build());
+        service.persistUser(User.builder().email("a@b.com").name("New").build());
+        when(userRepo.upsert(any())).thenThrow(new RuntimeException("constraint violated"));
+
+        for (int i = 0; i < 5; i++) {
+            service.flushProfileUpdates();
+        }
+
+        verify(userRepo, times(4)).upsert(any());
+        assertThat(((UserDTO) service.fetchUserInfo().getBody().data()).getName()).isEqualTo("Old");
+    }
+
+    @Test
+    void fetchUserInfo_profileReadBeforeConcurrentLogin_isNotCached() {
+        stubToken("a@b.com");
+        var stale = User.builder().id("1").email("a@b.com").name("Old").build();
+        var fresh = User.builder().id("1").email("a@b.com").name("New").build();
+        var reads = new AtomicInteger();
+        when(userRepo.findByEmail("a@b.com")).thenAnswer(invocation -> {
+            if (reads.incrementAndGet() == 1) {
+                // A login lands while this read is in flight.
+                service.persistUser(User.builder().email("a@b.com").name("New").build());
+                return Optional.of(stale);
+            }
+            return Optional.of(fresh);
+        });
+
+        assertThat(((UserDTO) service.fetchUserInfo().getBody().data()).getName()).isEqualTo("Old");
+        assertThat(((UserDTO) service.fetchUserInfo().getBody().data()).getName()).isEqualTo("New");
+    }
+
+    @Test
+    void fetchUserInfo_basicFields_areServedFromClaimsWithoutDatabase() {
+        when(request.getCookies()).thenReturn(new Cookie[]{ new Cookie("access_token", "jwt-token") });
+        Claims claims = mock(Claims.class);
+        when(claims.get(eq("email"), eq(String.class))).thenReturn("a@b.com");
+        when(claims.get(eq("name"), eq(String.class))).thenReturn("John");
+        when(claims.get(eq("picture"), eq(String.class))).thenReturn(null);
+        when(claims.getSubject()).thenReturn("john");
+        when(jwtUtils.claimsFor(request, "jwt-token")).thenReturn(claims);
+
+        var resp = service.fetchUserInfo("basic");
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        var dto = (UserDTO) resp.getBody().data();
+        assertThat(dto.getName()).isEqualTo("John");
+        assertThat(dto.getEmail()).isEqualTo("a@b.com");
+        assertThat(dto.getLogin()).isEqualTo("john");
+        assertThat(dto.getProfilePicURL()).isEqualTo("http://default/pic.png");
+        assertThat(dto.getFollowers()).isNull();
+        verifyNoInteractions(userRepo);
+    }
+
+    @Test
+    void fetchUserInfo_basicFields_withoutToken_returnsUnauthorized() {
+        when(request.getCookies()).thenReturn(null);
+        assertUnauthorized(service.fetchUserInfo("basic"));
+    }
+
+    @Test
+    void jwtUtils_verifiesTokenOnce_andReusesClaimsExposedOnRequest() {
+        var secret = "0123456789abcdef0123456789abcdef";
+        var utils = new JwtUtils(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(utils, "jwtSecret", secret);
+        ReflectionTestUtils.setField(utils, "maxCachedTokens", 10L);
+        utils.init();
+        var key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        var token = Jwts.builder().subject("john").claim("email", "a@b.com")
+                .expiration(new Date(System.currentTimeMillis() + 60_000)).signWith(key).compact();
+        var expired = Jwts.builder().subject("john")
+                .expiration(new Date(System.currentTimeMillis() - 60_000)).signWith(key).compact();
+
+        var first = utils.parseJwt(token);
+        assertThat(utils.parseJwt(token)).isSameAs(first);
+
+        var httpRequest = new MockHttpServletRequest();
+        utils.exposeClaims(httpRequest, token, first);
+        assertThat(utils.claimsFor(httpRequest, token)).isSameAs(first);
+        assertThat(first.get("email", String.class)).isEqualTo("a@b.com");
+
+        assertThrows(JwtException.class, () -> utils.parseJwt(token.substring(0, token.length() - 2) + "xx"));
+        assertThrows(ExpiredJwtException.class, () -> utils.parseJwt(expired));
+    }
+
+    private void poll(String email, User stored) {
+        stubToken(email);
+        when(userRepo.findByEmail(email)).thenReturn(Optional.of(stored));
+        assertThat(service.fetchUserInfo().getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private void stubToken(String email) {
+        when(request.getCookies()).thenReturn(new Cookie[]{ new Cookie("access_token", "jwt-token") });
+        Claims claims = mock(Claims.class);
+        when(claims.get(eq("email"), eq(String.class))).thenReturn(email);
+        when(jwtUtils.claimsFor(request, "jwt-token")).thenReturn(claims);
+    }
+
+    static class CountingTransactions implements TransactionOperations {
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            count.incrementAndGet();
+            return action.doInTransaction(new SimpleTransactionStatus());
+        }
+    }
+
     private static void assertUnauthorized(ResponseEntity<Response> resp) {
         assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
         assertThat(resp.getBody()).isNotNull();